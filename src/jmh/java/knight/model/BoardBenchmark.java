@@ -0,0 +1,63 @@
+package knight.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grundoperationen von {@link Board} und {@link Formatter} auf einem teilweise belegten 6x6 Brett
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private static final int STEPS = 12;    // belegte Felder vor der Messung
+
+    private final Formatter formatter = new Formatter();
+    private Board board;
+    private int target;     // zulässiges Sprungziel vom aktuellen Feld
+    private Board solution;
+
+    @Setup
+    public void setup() {
+        board = new Board(new Dim(6, 6), Blacks.BLACK_CORNER_GUARD);
+        board.start(0, 0);
+        int[] targets = new int[Board.MOVES.length];
+        for (int step = 1; step < STEPS && board.targets(targets) > 0; step++) {
+            board.move(targets[0]);
+        }
+        board.targets(targets);
+        target = targets[0];
+        solution = new Engine(new Dim(5, 5), 1).solve(0, 0, 1).findFirst().orElseThrow();
+    }
+
+    @Benchmark
+    public void check(Blackhole blackhole) {
+        for (Dim move : Board.MOVES) {
+            blackhole.consume(board.check(move));
+        }
+    }
+
+    @Benchmark
+    public int moveUndo() {
+        board.move(target);
+        board.undo(target);
+        return board.step;
+    }
+
+    @Benchmark
+    public Board copy() {
+        return new Board(board);
+    }
+
+    @Benchmark
+    public String format() {
+        return formatter.format(solution);
+    }
+}
@@ -0,0 +1,45 @@
+package knight.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vollständige Suche mit {@link Engine#solve(int, int)} auf den kleinen Brettgrössen der Oberfläche
+ * (ab Feld 0,0) und auf 6x6 mit den Vorgaben aus {@link Blacks} (ab Feld 2,2), je Thread-Anzahl.
+ * 6x5 und grösser sowie 6x6 mit {@link Blacks#BLACK_CORNER} brauchen Sekunden bis Stunden je Suche.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({"5x5", "6x4", "6x6:BLACK_TRIANGLE", "6x6:BLACK_CORNER_2", "6x6:BLACK_CORNER_GUARD"})
+    public String preset;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private Dim size;
+    private Dim[] blacks = {};
+    private Dim start = new Dim(0, 0);
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        String[] parts = preset.split(":");
+        size = new Dim(parts[0].charAt(0) - '0', parts[0].charAt(2) - '0');
+        if (parts.length > 1) {
+            blacks = (Dim[]) Blacks.class.getField(parts[1]).get(null);
+            start = new Dim(2, 2);
+        }
+    }
+
+    @Benchmark
+    public long solve() {
+        return new Engine(size, threads, blacks).solve(start.x(), start.y()).count();
+    }
+}
@@ -0,0 +1,87 @@
+package knight.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Vergleich der Ausführungsarten {@link Engine.Execution} über die Thread-Anzahlen des Menüs
+ * {@link Engine#THREAD_COUNTS}: Laufzeit (ms, Median) für das Zählen aller Touren ab Feld 0,0.
+ * Argumente: Brettgrösse (z.B. 5x5), Wiederholungen.
+ * <p>
+ * Jede Messung läuft in einer eigenen JVM mit -Djdk.virtualThreadScheduler.parallelism=Threads, denn der
+ * Scheduler virtueller Threads liest die Anzahl Träger-Threads nur beim ersten virtuellen Thread einer JVM.
+ * Virtuelle Threads werden nur ab Java 21 gemessen.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public class ExecutionComparison {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("measure")) {
+            System.out.println(measure(size(args[1]), Integer.parseInt(args[2]), Engine.Execution.valueOf(args[3]),
+                    Integer.parseInt(args[4])));
+            return;
+        }
+        String board = args.length > 0 ? args[0] : "5x5";
+        Dim size = size(board);
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.printf("Brett %s, %d Wiederholungen, Java %s, %d Prozessoren%n", size, repetitions,
+                Runtime.version(), Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s", "Threads");
+        for (Engine.Execution execution : Engine.Execution.values()) {
+            System.out.printf("%12s", execution);
+        }
+        System.out.println();
+        for (int threadCount : Engine.THREAD_COUNTS) {
+            System.out.printf("%8d", threadCount);
+            for (Engine.Execution execution : Engine.Execution.values()) {
+                System.out.printf("%12s", Engine.supports(execution)
+                        ? fork(board, threadCount, execution, repetitions) : "-");
+            }
+            System.out.println();
+        }
+    }
+
+    private static Dim size(String board) {
+        if (!board.matches("\\d+x\\d+")) {
+            throw new IllegalArgumentException("Invalid board size: " + board);
+        }
+        String[] dimensions = board.split("x");
+        return new Dim(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    /**
+     * Messung in einer eigenen JVM, Median in ms
+     */
+    private static String fork(String board, int threadCount, Engine.Execution execution, int repetitions)
+            throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Djdk.virtualThreadScheduler.parallelism=" + threadCount,
+                "-cp", System.getProperty("java.class.path"), ExecutionComparison.class.getName(),
+                "measure", board, Integer.toString(threadCount), execution.name(), Integer.toString(repetitions))
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String median = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Measurement of " + execution + " with " + threadCount + " threads failed");
+        }
+        return median;
+    }
+
+    private static long measure(Dim size, int threadCount, Engine.Execution execution, int repetitions) {
+        long[] millis = new long[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            Engine engine = new Engine(size, threadCount);
+            engine.setRepresentation(Engine.Representation.BITBOARD);
+            engine.setExecution(execution);
+            long start = System.nanoTime();
+            engine.count(0, 0);
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+            if (engine.errors() > 0) {
+                throw new IllegalStateException("Search failed");
+            }
+        }
+        Arrays.sort(millis);
+        return millis[repetitions / 2];
+    }
+}
@@ -0,0 +1,422 @@
+package knight.cli;
+
+import knight.model.Blacks;
+import knight.model.Board;
+import knight.model.Dim;
+import knight.model.Engine;
+import knight.model.Formatter;
+import knight.model.Layouts;
+import knight.model.Mirror;
+import knight.model.Portfolio;
+import knight.model.Sweep;
+import knight.model.Tour;
+import knight.model.TourStore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.NumberFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Suche ohne Oberfläche für Batch-Betrieb: Lösungen werden direkt in die Ausgabe gestreamt und nicht gehalten,
+ * am Ende folgen Zeit und Durchsatz auf stderr. Exit-Code 0 bei Erfolg, 1 bei Fehlern der Suche, 2 bei
+ * ungültigen Argumenten.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public class Runner {
+    private static final String CARRIERS = "jdk.virtualThreadScheduler.parallelism";
+    private static final String USAGE = """
+            Usage: Runner <BxH> [options]
+              --start x,y             Startfeld (0,0)
+              --blacks NAME|x,y:x,y   Vorgabe aus Blacks oder gesperrte Felder
+              --threads n             Threads (%d)
+              --representation R      ARRAY, TABLE, BITBOARD
+              --execution E           POOL, FORK_JOIN, VIRTUAL
+              --split S               FIXED, ADAPTIVE (nur FORK_JOIN ohne --checkpoint)
+              --order O               FIXED, WARNSDORFF, RANDOM
+              --symmetry S            NONE, REDUCE, MIRROR
+              --pruning [n]           aussichtslose Teilbäume abschneiden, Zusammenhang alle n Züge prüfen
+              --closed                nur geschlossene Touren
+              --cache n               Einträge der Transpositionstabelle
+              --checkpoint file       Fortschritt sichern und fortsetzen
+              --limit n               höchstens n Lösungen
+              --timeout s             Zeitbudget in Sekunden
+              --count                 Lösungen nur zählen, ohne --limit
+              --portfolio             Strategien gleichzeitig, die erste mit --limit Lösungen gewinnt,
+                                      nur mit --limit, ohne --order, --checkpoint und --count
+              --construct             eine geschlossene Tour ohne Suche, gerade Seitenlängen ab 6
+              --sweep                 Lösungen für jedes Startfeld zählen, Tabelle auf stdout
+              --layouts SPEC          Lösungen je Vorgabe zählen, CSV nach --output, mehrfach möglich:
+                                      PRESETS, NAME, x,y:x,y, @Datei (eine Vorgabe je Zeile) oder
+                                      symmetric:k[:MIRROR] (alle k Felder, unter MIRROR symmetrisch, BOTH)
+                                      mit --sweep über alle Startfelder statt --start
+              --output -|none|file    Lösungen als Text auf stdout (-), verwerfen oder in Datei, *.tours als TourStore
+            """.formatted(Engine.DEFAULT_THREAD_COUNT);
+
+    private Dim size;
+    private Dim start = new Dim(0, 0);
+    private final List<Dim> blacks = new ArrayList<>();
+    private final List<String> layouts = new ArrayList<>();  // Vorgaben für Batch-Betrieb
+    private int threads = Engine.DEFAULT_THREAD_COUNT;
+    private int limit = Integer.MAX_VALUE;
+    private Duration timeout = Duration.ZERO;
+    private boolean counting;
+    private boolean sweeping;
+    private boolean constructing;
+    private boolean racing;
+    private Portfolio portfolio;
+    private String output = "-";
+    private final List<Runnable> options = new ArrayList<>();  // Einstellungen der Engine
+    private final Set<String> given = new HashSet<>();  // angegebene Optionen
+    private Engine engine;
+
+    public static void main(String[] args) {
+        System.exit(execute(args));
+    }
+
+    /**
+     * Träger-Threads virtueller Threads gemäss --threads, sofern nicht beim Start der JVM angegeben. Der Scheduler
+     * liest die Anzahl beim ersten virtuellen Thread, danach hat die Eigenschaft keine Wirkung mehr.
+     */
+    private void carriers() {
+        if (engine.getExecution() == Engine.Execution.VIRTUAL && System.getProperty(CARRIERS) == null) {
+            System.setProperty(CARRIERS, Integer.toString(threads));
+        }
+    }
+
+    /**
+     * Führt den Aufruf aus, liefert den Exit-Code
+     */
+    static int execute(String[] args) {
+        Runner runner = new Runner();
+        try {
+            runner.parse(args);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return 2;
+        }
+        runner.carriers();
+        try {
+            return runner.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 2;
+        } catch (IOException | UncheckedIOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
+    }
+
+    void parse(String[] args) {
+        if (args.length == 0 || !args[0].matches("\\d+x\\d+")) {
+            throw new IllegalArgumentException(args.length == 0 ? "Missing board size" : "Invalid board size: " + args[0]);
+        }
+        String[] dimensions = args[0].split("x");
+        size = new Dim(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            String value = hasValue ? args[i + 1] : null;
+            given.add(option);
+            switch (option) {
+                case "--closed" -> options.add(() -> engine.setClosed(true));
+                case "--count" -> counting = true;
+                case "--sweep" -> sweeping = true;
+                case "--construct" -> constructing = true;
+                case "--portfolio" -> racing = true;
+                case "--pruning" -> {
+                    int connectivity = hasValue ? Integer.parseInt(value) : 0;
+                    options.add(() -> {
+                        engine.setPruning(true);
+                        engine.setConnectivity(connectivity);
+                    });
+                    i += hasValue ? 1 : 0;
+                }
+                default -> {
+                    if (!hasValue) {
+                        throw new IllegalArgumentException("Invalid option: " + option);
+                    }
+                    option(option, value);
+                    i++;
+                }
+            }
+        }
+        validate();
+    }
+
+    /**
+     * Prüft Felder gegen die Brettgrösse, Einstellungen der Engine und Kombinationen von Optionen, die sich
+     * ausschliessen
+     */
+    private void validate() {
+        for (Dim black : blacks) {
+            if (!inside(black)) {
+                throw new IllegalArgumentException("Black square " + black.x() + "," + black.y() + " outside of " + size);
+            }
+        }
+        if (!inside(start) || blacks.contains(start)) {
+            throw new IllegalArgumentException("Invalid start square " + start.x() + "," + start.y() + " on " + size);
+        }
+        engine = new Engine(new Board(size), threads);
+        options.forEach(Runnable::run);
+        // --sweep und --layouts suchen mit TABLE statt ARRAY, --construct sucht nicht
+        boolean searching = layouts.isEmpty() && !sweeping && !constructing;
+        if (searching && engine.getRepresentation() == Engine.Representation.ARRAY && (engine.isPruning() || engine.isClosed())) {
+            throw new IllegalArgumentException("--pruning and --closed require TABLE or BITBOARD representation");
+        }
+        if (searching && engine.getCacheSize() > 0 && (engine.getRepresentation() != Engine.Representation.BITBOARD || engine.isClosed())) {
+            throw new IllegalArgumentException("--cache requires BITBOARD representation and no --closed");
+        }
+        if (engine.getSplit() == Engine.Split.ADAPTIVE
+                && (engine.getExecution() != Engine.Execution.FORK_JOIN || engine.getCheckpoint() != null)) {
+            throw new IllegalArgumentException("--split ADAPTIVE requires --execution FORK_JOIN without --checkpoint");
+        }
+        if (given.contains("--count") && given.contains("--limit")) {
+            throw new IllegalArgumentException("--count cannot be combined with --limit");
+        }
+        if (racing) {
+            if (limit == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("--portfolio requires --limit");
+            }
+            for (String option : List.of("--order", "--checkpoint", "--count", "--construct", "--sweep", "--layouts")) {
+                if (given.contains(option)) {
+                    throw new IllegalArgumentException("--portfolio cannot be combined with " + option);
+                }
+            }
+        }
+    }
+
+    private void option(String option, String value) {
+        switch (option) {
+            case "--start" -> start = dim(value);
+            case "--blacks" -> blacks.addAll(blacks(value));
+            case "--threads" -> threads = Integer.parseInt(value);
+            case "--limit" -> limit = Integer.parseInt(value);
+            case "--timeout" -> timeout = Duration.ofMillis(Math.round(Double.parseDouble(value) * 1000));
+            case "--output" -> output = value;
+            case "--layouts" -> layouts.add(value);
+            case "--representation" -> {
+                Engine.Representation representation = Engine.Representation.valueOf(value);
+                options.add(() -> engine.setRepresentation(representation));
+            }
+            case "--execution" -> {
+                Engine.Execution execution = Engine.Execution.valueOf(value);
+                options.add(() -> engine.setExecution(execution));
+            }
+            case "--split" -> {
+                Engine.Split split = Engine.Split.valueOf(value);
+                options.add(() -> engine.setSplit(split));
+            }
+            case "--order" -> {
+                Engine.Order order = Engine.Order.valueOf(value);
+                options.add(() -> engine.setOrder(order));
+            }
+            case "--symmetry" -> {
+                Engine.Symmetry symmetry = Engine.Symmetry.valueOf(value);
+                options.add(() -> engine.setSymmetry(symmetry));
+            }
+            case "--cache" -> {
+                int entries = Integer.parseInt(value);
+                options.add(() -> engine.setCacheSize(entries));
+            }
+            case "--checkpoint" -> options.add(() -> engine.setCheckpoint(Path.of(value)));
+            default -> throw new IllegalArgumentException("Invalid option: " + option);
+        }
+    }
+
+    private boolean inside(Dim square) {
+        return square.x() >= 0 && square.x() < size.x() && square.y() >= 0 && square.y() < size.y();
+    }
+
+    private static Dim dim(String value) {
+        String[] xy = value.split(",");
+        if (xy.length != 2) {
+            throw new IllegalArgumentException("Invalid square: " + value);
+        }
+        return new Dim(Integer.parseInt(xy[0].trim()), Integer.parseInt(xy[1].trim()));
+    }
+
+    private static List<Dim> blacks(String value) {
+        if (value.matches("[A-Z_0-9]+")) {
+            try {
+                return List.of((Dim[]) Blacks.class.getField(value).get(null));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Unknown Blacks preset: " + value);
+            }
+        }
+        return Stream.of(value.split(":")).map(Runner::dim).toList();
+    }
+
+    /**
+     * Führt die Suche aus, liefert den Exit-Code
+     */
+    int run() throws IOException {
+        if (!layouts.isEmpty()) {
+            return layouts();
+        }
+        Board board = new Board(size, blacks.toArray(Dim[]::new));
+        if (sweeping) {
+            return sweep(board);
+        }
+        engine = new Engine(board, threads);
+        options.forEach(Runnable::run);
+        long started = System.nanoTime();
+        if (counting && !constructing) {
+            engine.count(start.x(), start.y(), timeout);
+        } else if (output.endsWith(".tours")) {
+            try (TourStore tours = TourStore.create(Path.of(output), board);
+                 Stream<Board> solutions = solutions(board)) {
+                solutions.map(Tour.encoder(board)).forEach(tours::add);
+                tours.seal();
+            }
+        } else {
+            try (Writer writer = writer(); Stream<Board> solutions = solutions(board)) {
+                Formatter formatter = new Formatter();
+                solutions.forEach(solution -> {
+                    try {
+                        if (writer != null) writer.write(formatter.format(solution));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+        long nanos = Math.max(1, System.nanoTime() - started);
+        long solutions = portfolio != null ? portfolio.solutions() : engine.solutions();
+        Engine.Status status = portfolio != null ? portfolio.status() : engine.result().status();
+        long moves = portfolio != null ? portfolio.moves() : engine.moves();
+        long lookups = portfolio != null ? portfolio.cacheLookups() : engine.cacheLookups();
+        long hits = portfolio != null ? portfolio.cacheHits() : engine.cacheHits();
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        System.err.printf("Lösungen: %s  Züge: %s  Zeit (s): %.3f  Züge/s: %s  Lösungen/s: %s  Fehler: %d  Status: %s%s%s%n",
+                format.format(solutions), format.format(moves), nanos / 1e9,
+                format.format(moves * 1_000_000_000.0 / nanos),
+                format.format(solutions * 1_000_000_000.0 / nanos), engine.errors(), status,
+                portfolio != null ? "  Strategie: " + portfolio.winner() : "",
+                engine.getCacheSize() > 0 ? String.format("  Cache: %s Abfragen, %.1f%% Treffer",
+                        format.format(lookups), lookups == 0 ? 0.0 : 100.0 * hits / lookups) : "");
+        if (portfolio == null && !constructing) {
+            System.err.println(engine.taskStatistics());
+        }
+        return engine.errors() == 0 ? 0 : 1;
+    }
+
+    private Stream<Board> solutions(Board board) {
+        if (racing) {
+            portfolio = new Portfolio(board, threads);
+            portfolio.setRepresentation(engine.getRepresentation());
+            portfolio.setExecution(engine.getExecution());
+            portfolio.setSplit(engine.getSplit());
+            portfolio.setSymmetry(engine.getSymmetry());
+            portfolio.setPruning(engine.isPruning());
+            portfolio.setConnectivity(engine.getConnectivity());
+            portfolio.setClosed(engine.isClosed());
+            portfolio.setCacheSize(engine.getCacheSize());
+            return portfolio.solve(start.x(), start.y(), limit, timeout);
+        }
+        return constructing ? engine.construct(start.x(), start.y()) : engine.solve(start.x(), start.y(), limit, timeout);
+    }
+
+    /**
+     * Zählt die Lösungen aller Vorgaben, Ergebnistabelle als CSV
+     */
+    private int layouts() throws IOException {
+        List<Dim[]> batch = new ArrayList<>();
+        for (String spec : layouts) {
+            batch.addAll(layouts(spec));
+        }
+        Layouts evaluation = new Layouts(size, threads);
+        engine = new Engine(new Board(size), threads);
+        options.forEach(Runnable::run);
+        evaluation.setStart(sweeping ? null : start);
+        evaluation.setRepresentation(engine.getRepresentation() == Engine.Representation.ARRAY
+                ? Engine.Representation.TABLE : engine.getRepresentation());
+        evaluation.setPruning(engine.isPruning());
+        evaluation.setConnectivity(engine.getConnectivity());
+        long started = System.nanoTime();
+        List<Layouts.Result> results = evaluation.run(batch);
+        long nanos = Math.max(1, System.nanoTime() - started);
+        try (Writer writer = writer()) {
+            if (writer != null) {
+                Layouts.write(results, writer);
+            }
+        }
+        long moves = results.stream().mapToLong(Layouts.Result::moves).sum();
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        System.err.printf("Vorgaben: %d  durchsucht: %d  Züge: %s  Zeit (s): %.3f  Züge/s: %s%n", results.size(),
+                results.stream().filter(result -> result.duplicateOf() < 0).count(), format.format(moves),
+                nanos / 1e9, format.format(moves * 1_000_000_000.0 / nanos));
+        return 0;
+    }
+
+    private List<Dim[]> layouts(String spec) throws IOException {
+        if (spec.equals("PRESETS")) {
+            return new ArrayList<>(Layouts.presets().values());
+        }
+        if (spec.startsWith("@")) {
+            return Files.readAllLines(Path.of(spec.substring(1)), StandardCharsets.UTF_8).stream()
+                    .map(String::trim).filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(line -> blacks(line).toArray(Dim[]::new)).toList();
+        }
+        if (spec.startsWith("symmetric:")) {
+            String[] fields = spec.split(":");
+            Mirror mirror = fields.length > 2 ? Mirror.valueOf(fields[2]) : Mirror.BOTH;
+            return Layouts.symmetric(size, Integer.parseInt(fields[1]), mirror);
+        }
+        return List.<Dim[]>of(blacks(spec).toArray(Dim[]::new));
+    }
+
+    /**
+     * Zählt die Lösungen aller Startfelder, Zeilen der Tabelle entsprechen den Zeilen des Bretts
+     */
+    private int sweep(Board board) {
+        Sweep sweep = new Sweep(board, threads);
+        engine = new Engine(board, threads);
+        options.forEach(Runnable::run);
+        sweep.setRepresentation(engine.getRepresentation() == Engine.Representation.ARRAY
+                ? Engine.Representation.TABLE : engine.getRepresentation());
+        sweep.setPruning(engine.isPruning());
+        sweep.setConnectivity(engine.getConnectivity());
+        long started = System.nanoTime();
+        long[][] counts = sweep.run();
+        long nanos = Math.max(1, System.nanoTime() - started);
+        int width = Arrays.stream(counts).flatMapToLong(Arrays::stream)
+                .mapToInt(count -> Long.toString(count).length()).max().orElse(1) + 1;
+        for (int y = 0; y < size.y(); y++) {
+            StringBuilder row = new StringBuilder();
+            for (int x = 0; x < size.x(); x++) {
+                row.append(String.format("%" + width + "s", counts[x][y] < 0 ? "-" : Long.toString(counts[x][y])));
+            }
+            System.out.println(row);
+        }
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        System.err.printf("Züge: %s  Zeit (s): %.3f  Züge/s: %s  Fehler: %d%n", format.format(sweep.moves()),
+                nanos / 1e9, format.format(sweep.moves() * 1_000_000_000.0 / nanos), sweep.errors());
+        return sweep.errors() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Ausgabe der Lösungen als Text, null = verwerfen
+     */
+    private Writer writer() throws IOException {
+        return switch (output) {
+            case "none" -> null;
+            case "-" -> new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            default -> Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8);
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package knight.model;
+
+/**
+ * Spielfeld bis 64 freie Felder als Bitmaske: besuchte Knoten eines {@link Graph} in einem long,
+ * Sprungziele je Knoten vorberechnet. Die Zugfolge wird als Knoten je Spielzug gehalten.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+class BitBoard extends Walk {
+    static final int MAX_NODES = Long.SIZE;
+
+    private final Graph graph;
+    private final long[] jumps;     // Sprungziele je Knoten
+    private final Degrees degrees;      // Restgrade, null ohne Abschneiden
+    private final int[] path;       // Knoten je Spielzug
+    long visited;   // besuchte Knoten
+    int node;       // aktueller Knoten
+
+    BitBoard(Graph graph, Degrees degrees) {
+        super(graph.nodes);
+        this.graph = graph;
+        this.degrees = degrees;
+        this.jumps = graph.masks();
+        this.path = new int[graph.nodes + 1];
+    }
+
+    private BitBoard(BitBoard copy) {
+        super(copy);
+        this.graph = copy.graph;
+        this.degrees = copy.degrees == null ? null : new Degrees(copy.degrees);
+        this.jumps = copy.jumps;
+        this.path = copy.path.clone();
+        this.visited = copy.visited;
+        this.node = copy.node;
+    }
+
+    @Override
+    void start(int x, int y) {
+        move(graph.node(x, y));
+    }
+
+    /**
+     * Sprungziele sind Knoten, ermittelt aus Sprungmaske ohne besuchte Knoten
+     */
+    @Override
+    int targets(int[] targets) {
+        int n = 0;
+        for (long free = jumps[node] & ~visited; free != 0; free &= free - 1) {
+            targets[n++] = Long.numberOfTrailingZeros(free);
+        }
+        return n;
+    }
+
+    @Override
+    void move(int target) {
+        visited |= 1L << target;
+        node = target;
+        path[++step] = target;
+        count++;
+        if (degrees != null) {
+            degrees.visit(target);
+        }
+    }
+
+    @Override
+    void undo(int target) {
+        visited &= ~(1L << target);
+        node = path[--step];
+        if (degrees != null) {
+            degrees.leave(target);
+        }
+    }
+
+    @Override
+    Dim position(int target) {
+        return graph.position(target);
+    }
+
+    @Override
+    int degree(int target) {
+        return Long.bitCount(jumps[target] & ~visited);
+    }
+
+    @Override
+    boolean isSolved() {
+        return step == graph.nodes && (!closed || node > path[2] && (jumps[path[1]] & 1L << node) != 0);
+    }
+
+    /**
+     * Bei geschlossenen Touren muss ein Nachbar des Startfelds frei sein, der nach dem ersten Sprungziel
+     * nummeriert ist. Jeder Zyklus wird so nur in einer Richtung gezählt.
+     */
+    @Override
+    boolean isDead() {
+        return closed && step >= 2 && (jumps[path[1]] & ~visited & -2L << path[2]) == 0
+                || degrees != null && degrees.isDead(node, step);
+    }
+
+    @Override
+    BitBoard copy() {
+        return new BitBoard(this);
+    }
+
+    @Override
+    Board toBoard() {
+        return graph.board(path, step);
+    }
+}
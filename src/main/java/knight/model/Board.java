@@ -8,30 +8,26 @@ import java.util.Arrays;
  *
  * @author matthias.baumgartner@gmx.net
  */
-public class Board {
+public class Board extends Walk {
     /**
      * Mögliche Züge des Springers
      */
     static final Dim[] MOVES = {new Dim(1, 2), new Dim(2, 1), new Dim(2, -1), new Dim(1, -2),
             new Dim(-1, -2), new Dim(-2, -1), new Dim(-2, 1), new Dim(-1, 2)};
 
-    static final Board SENTINEL = new Board(new Dim(0, 0));
-
     final int[][] board;    // 0 = frei, -1, gesperrt, 1-n Zug des Springers
     final Dim size;
     int blacks;     // Anzahl
     int x, y;   // aktuelle Position
-    int step;   // Spielzug
-    long count; // Gesamtzahl Züge auf diesem Brett
 
     Board(Board copy) {
+        super(copy);
         this.size = copy.size;
         this.board = new int[this.size.x()][];
         for (int i = 0; i < this.size.x(); i++) {
             this.board[i] = Arrays.copyOf(copy.board[i], copy.size.y());
         }
         this.blacks = copy.blacks;
-        this.step = copy.step;
         this.x = copy.x;
         this.y = copy.y;
     }
@@ -42,6 +38,7 @@ public class Board {
     }
 
     public Board(Dim size, Dim... blacks) {
+        super(size.area());
         this.board = new int[size.x()][size.y()];
         this.size = size;
         this.blacks = blacks.length;
@@ -94,12 +91,111 @@ public class Board {
         return false;
     }
 
+    @Override
+    void start(int x, int y) {
+        move(new Dim(x, y));
+    }
+
+    /**
+     * Sprungziele sind die Indizes der zulässigen Züge in {@link #MOVES}
+     */
+    @Override
+    int targets(int[] targets) {
+        int n = 0;
+        for (int i = 0; i < MOVES.length; i++) {
+            if (check(MOVES[i])) {
+                targets[n++] = i;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    void move(int target) {
+        move(MOVES[target]);
+    }
+
+    @Override
+    void undo(int target) {
+        undo(MOVES[target]);
+    }
+
+    @Override
+    Dim position(int target) {
+        return new Dim(x + MOVES[target].x(), y + MOVES[target].y());
+    }
+
+    @Override
+    int degree(int target) {
+        int x = this.x + MOVES[target].x(), y = this.y + MOVES[target].y();
+        int n = 0;
+        for (Dim move : MOVES) {
+            if (x + move.x() >= 0 && x + move.x() < size.x() && y + move.y() >= 0 && y + move.y() < size.y()
+                    && board[x + move.x()][y + move.y()] == 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    Board copy() {
+        return new Board(this);
+    }
+
+    @Override
+    Board toBoard() {
+        return new Board(this);
+    }
+
+    /**
+     * Gespiegeltes Brett
+     */
+    Board mirror(Mirror mirror) {
+        Board image = new Board(this);
+        for (int x = 0; x < size.x(); x++) {
+            for (int y = 0; y < size.y(); y++) {
+                Dim position = mirror.apply(new Dim(x, y), size);
+                image.board[position.x()][position.y()] = board[x][y];
+            }
+        }
+        Dim position = mirror.apply(new Dim(x, y), size);
+        image.x = position.x();
+        image.y = position.y();
+        return image;
+    }
+
+    /**
+     * Geschlossene Tour neu nummeriert, sodass sie auf Feld start beginnt
+     */
+    Board rotate(Dim start) {
+        if (board[start.x()][start.y()] <= 0) {
+            return this;
+        }
+        Board image = new Board(this);
+        int offset = board[start.x()][start.y()] - 1;
+        for (int x = 0; x < size.x(); x++) {
+            for (int y = 0; y < size.y(); y++) {
+                if (board[x][y] > 0) {
+                    image.board[x][y] = (board[x][y] - 1 - offset + step) % step + 1;
+                    if (image.board[x][y] == step) {
+                        image.x = x;
+                        image.y = y;
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
     public long getCount() {
         return count;
     }
     public int[][] getMoves() {
         return board;
     }
+
+    @Override
     boolean isSolved() {
         return step + blacks == size.area();
     }
@@ -0,0 +1,125 @@
+package knight.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Fortschritt einer Suche als Textdatei: erste Zeile beschreibt die Suche, danach je abgeschlossenem Teilbaum
+ * eine Zeile mit seinem Präfix (Felder der ersten Spielzüge), Zügen und Lösungen. Teilbäume ohne Zeile sind
+ * offen und werden bei erneutem Start mit derselben Datei durchsucht, abgeschlossene übersprungen.
+ * <p>
+ * Nach Abschluss der Suche folgt eine Zeile {@link #ROOT} mit den Zählern oberhalb der Teilbäume,
+ * siehe {@link Shards#merge(List)}.
+ * <p>
+ * Zeilen werden gepuffert und von einem Timer alle {@link #FLUSH_MILLIS} geschrieben, nach einem Absturz fehlen
+ * höchstens die Teilbäume dieses Intervalls. Eine unvollständige letzte Zeile wird beim Öffnen verworfen.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+final class Checkpoint implements Closeable {
+    static final long FLUSH_MILLIS = 10_000;
+    static final String ROOT = "root";  // Zeile mit Zügen und Lösungen oberhalb der Teilbäume, nach Abschluss der Suche
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<String> done = ConcurrentHashMap.newKeySet();
+    private final Writer writer;
+    private final ScheduledFuture<?> flush;
+    private IOException failure;    // Fehler beim Schreiben durch den Timer
+    long moves;         // Züge der abgeschlossenen Teilbäume aus der Datei
+    long solutions;     // Lösungen der abgeschlossenen Teilbäume aus der Datei
+
+    Checkpoint(Path file, String search) throws IOException {
+        if (Files.exists(file)) {
+            String content = Files.readString(file, StandardCharsets.US_ASCII);
+            int complete = content.lastIndexOf('\n') + 1;
+            String[] lines = content.substring(0, complete).split("\n");
+            if (complete == 0 || !lines[0].equals(search)) {
+                throw new IllegalStateException("Checkpoint " + file + " belongs to a different search");
+            }
+            for (int i = 1; i < lines.length; i++) {
+                String[] fields = lines[i].split(" ");
+                if (!fields[0].equals(ROOT) && done.add(fields[0])) {
+                    moves += Long.parseLong(fields[1]);
+                    solutions += Long.parseLong(fields[2]);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(file, WRITE)) {
+                channel.truncate(complete);
+            }
+            writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII, APPEND);
+        } else {
+            writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII);
+            writer.write(search + "\n");
+            writer.flush();
+        }
+        flush = FLUSHER.scheduleAtFixedRate(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    boolean isDone(String prefix) {
+        return done.contains(prefix);
+    }
+
+    /**
+     * Vermerkt den Teilbaum prefix als abgeschlossen
+     */
+    synchronized void complete(String prefix, long moves, long solutions) {
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            writer.write(prefix + " " + moves + " " + solutions + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Schreibt gepufferte Zeilen, auch wenn länger kein Teilbaum abgeschlossen wurde
+     */
+    private synchronized void flush() {
+        try {
+            if (failure == null) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Vermerkt die Suche als abgeschlossen mit Zügen und Lösungen oberhalb der Teilbäume
+     */
+    synchronized void finish(long moves, long solutions) {
+        complete(ROOT, moves, solutions);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush.cancel(false);
+        writer.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
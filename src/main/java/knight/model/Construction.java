@@ -0,0 +1,293 @@
+package knight.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Geschlossene Tour auf grossen Brettern ohne Suche, Laufzeit linear in der Anzahl Felder (nach Parberry).
+ * Das Brett wird in Blöcke mit Seitenlängen aus {@link #BLOCK_SIZES} zerlegt, jeder Block erhält eine
+ * vorberechnete geschlossene Tour, die an den Ecken die Sprünge aus {@link #JOINS} enthält. Benachbarte Blöcke
+ * werden verbunden, indem je ein solcher Sprung beider Blöcke durch zwei Sprünge über die Blockgrenze ersetzt
+ * wird: die erste Blockzeile von links nach rechts, dann jede Blockspalte von oben nach unten.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+final class Construction {
+    static final int[] BLOCK_SIZES = {6, 8, 10};
+    /**
+     * Sprünge jeder Blocktour relativ zu Blockbreite w und -höhe h: {x1, y1, x2, y2} mit x bzw. y negativ
+     * für w+x bzw. h+y. Oben links für Verbindungen von links und von oben, oben rechts nach rechts, unten
+     * links nach unten.
+     */
+    static final int[][] JOINS = {{0, 1, 1, 3}, {1, 0, 3, 1}, {-2, 0, -1, 2}, {0, -2, 2, -1}};
+    private static final int FROM_LEFT = 0, FROM_ABOVE = 1, TO_RIGHT = 2, TO_BELOW = 3;
+    private static final Map<Dim, int[][]> BLOCKS = new HashMap<>();    // Zugnummer [x][y] je Blockgrösse
+
+    static {
+        put(new Dim(6, 6), """
+                 16  23   8  31  10  25
+                  1  30  17  24   7  32
+                 22  15  36   9  26  11
+                 29   2  27  18  33   6
+                 14  21   4  35  12  19
+                  3  28  13  20   5  34
+                """);
+        put(new Dim(6, 8), """
+                 24  35  10  13  22  37
+                  1  14  23  36   9  12
+                 34  25  48  11  38  21
+                 15   2  39  32  45   8
+                 26  33  16  47  20  31
+                  3  40  27  44   7  46
+                 28  17  42   5  30  19
+                 41   4  29  18  43   6
+                """);
+        put(new Dim(6, 10), """
+                 30  55  32  37  28  53
+                  1  38  29  54  33  36
+                 56  31  60  35  52  27
+                 39   2  51  42  59  34
+                 18  57  40  49  26  43
+                  3  50  19  58  41  12
+                 20  17  48  13  44  25
+                 47   4  45  24  11   8
+                 16  21   6   9  14  23
+                  5  46  15  22   7  10
+                """);
+        put(new Dim(8, 6), """
+                 12  15  10  47  20  17   8  27
+                  1  30  13  16   9  28  21  18
+                 14  11  48  29  46  19  26   7
+                 31   2  41  38  35  24  43  22
+                 40  37   4  33  42  45   6  25
+                  3  32  39  36   5  34  23  44
+                """);
+        put(new Dim(8, 8), """
+                 14  17  12  41  22  19  10  43
+                  1  40  15  18  11  42  23  20
+                 16  13  64  39  60  21  44   9
+                 49   2  59  54  63  46  37  24
+                 30  53  48  61  38  55   8  45
+                  3  50  31  58  47  62  25  36
+                 32  29  52   5  34  27  56   7
+                 51   4  33  28  57   6  35  26
+                """);
+        put(new Dim(8, 10), """
+                 16  25  14  61  18  23  12  57
+                  1  60  17  24  13  58  19  22
+                 26  15  80  59  62  21  56  11
+                 69   2  73  28  79  54  65  20
+                 72  27  70  67  74  63  10  55
+                  3  68  29  78  49  66  53  64
+                 30  71  40  75  44  77  38   9
+                 41   4  45  48  39  50  35  52
+                 46  31   6  43  76  33   8  37
+                  5  42  47  32   7  36  51  34
+                """);
+        put(new Dim(10, 6), """
+                 14  17  12  39  46  19  10  35  32  21
+                  1  40  15  18  11  38  45  20   9  34
+                 16  13  60  47  44  51  36  33  22  31
+                 41   2  55  58  37  48  29  50  25   8
+                 54  59   4  43  52  57   6  27  30  23
+                  3  42  53  56   5  28  49  24   7  26
+                """);
+        put(new Dim(10, 8), """
+                 16  43  14  61  18  45  12  49  20  47
+                  1  60  17  44  13  58  19  46  11  50
+                 42  15  80  59  62  39  66  51  48  21
+                 69   2  63  40  67  78  57  22  53  10
+                 30  41  68  79  38  65  52  77  36  23
+                  3  70  29  64  73  76  37  56   9  54
+                 28  31  72   5  26  33  74   7  24  35
+                 71   4  27  32  75   6  25  34  55   8
+                """);
+        put(new Dim(10, 10), """
+                 26  23  28  97  58  21  30  65  56  19
+                  1  86  25  22  29  96  57  20  31  64
+                 24  27 100  91  98  59  66  63  18  55
+                 87   2  85  70  93  62  95  60  67  32
+                 76  47  92  99  90  71  68  51  54  17
+                  3  88  75  84  69  94  61  72  33  52
+                 46  77  48  89  74  83  50  53  16  41
+                  7   4  81  78  49  38  73  42  13  34
+                 80  45   6   9  82  43  36  11  40  15
+                  5   8  79  44  37  10  39  14  35  12
+                """);
+    }
+
+    private final Dim size;
+    private final int[] links;  // je Feld (linear) zwei Nachbarn in der Tour, -1 = frei
+
+    private Construction(Dim size) {
+        this.size = size;
+        this.links = new int[2 * size.area()];
+        Arrays.fill(links, -1);
+    }
+
+    private static void put(Dim size, String block) {
+        int[][] moves = new int[size.x()][size.y()];
+        String[] rows = block.strip().split("\n");
+        for (int y = 0; y < size.y(); y++) {
+            String[] fields = rows[y].strip().split(" +");
+            for (int x = 0; x < size.x(); x++) {
+                moves[x][y] = Integer.parseInt(fields[x]);
+            }
+        }
+        BLOCKS.put(size, moves);
+    }
+
+    /**
+     * Geschlossene Tour auf einem Brett der Grösse size ohne gesperrte Felder, beginnend auf start
+     */
+    static Board tour(Dim size, Dim start) {
+        int[] path = path(size, start);
+        Board board = new Board(size);
+        for (int i = 0; i < path.length; i++) {
+            board.board[path[i] % size.x()][path[i] / size.x()] = i + 1;
+        }
+        board.x = path[path.length - 1] % size.x();
+        board.y = path[path.length - 1] / size.x();
+        board.step = path.length;
+        return board;
+    }
+
+    /**
+     * Felder (linear) der Tour in Zugreihenfolge, beginnend auf start
+     */
+    static int[] path(Dim size, Dim start) {
+        int[] columns = split(size.x());
+        int[] rows = split(size.y());
+        if (columns == null || rows == null) {
+            throw new IllegalStateException("Construction requires even side lengths of at least 6: " + size);
+        }
+        if (start.x() < 0 || start.x() >= size.x() || start.y() < 0 || start.y() >= size.y()) {
+            throw new IllegalStateException("Start " + start + " outside of board " + size);
+        }
+        Construction construction = new Construction(size);
+        for (int i = 0, left = 0; i < columns.length; left += columns[i++]) {
+            for (int j = 0, top = 0; j < rows.length; top += rows[j++]) {
+                construction.block(left, top, new Dim(columns[i], rows[j]));
+            }
+        }
+        for (int i = 1, left = columns[0]; i < columns.length; left += columns[i++]) {
+            construction.join(left - columns[i - 1], 0, new Dim(columns[i - 1], rows[0]), TO_RIGHT,
+                    left, 0, new Dim(columns[i], rows[0]), FROM_LEFT);
+        }
+        for (int i = 0, left = 0; i < columns.length; left += columns[i++]) {
+            for (int j = 1, top = rows[0]; j < rows.length; top += rows[j++]) {
+                construction.join(left, top - rows[j - 1], new Dim(columns[i], rows[j - 1]), TO_BELOW,
+                        left, top, new Dim(columns[i], rows[j]), FROM_ABOVE);
+            }
+        }
+        int[] path = construction.walk(start.linear(size));
+        validate(size, path);
+        return path;
+    }
+
+    /**
+     * Zerlegung einer geraden Seitenlänge ab 6 in Blockgrössen, null wenn nicht möglich
+     */
+    static int[] split(int length) {
+        if (length < BLOCK_SIZES[0] || length % 2 != 0) {
+            return null;
+        }
+        int tens = length / 10;
+        return switch (length % 10) {
+            case 0 -> repeat(tens, 0, 0);
+            case 2 -> repeat(tens - 1, 6, 6);
+            case 4 -> repeat(tens - 1, 6, 8);
+            case 6 -> repeat(tens, 6, 0);
+            default -> repeat(tens, 8, 0);
+        };
+    }
+
+    private static int[] repeat(int tens, int first, int second) {
+        int[] sizes = new int[tens + (first > 0 ? 1 : 0) + (second > 0 ? 1 : 0)];
+        Arrays.fill(sizes, 10);
+        if (first > 0) sizes[tens] = first;
+        if (second > 0) sizes[tens + 1] = second;
+        return sizes;
+    }
+
+    /**
+     * Tour des Blocks der Grösse block mit linker oberer Ecke (left, top)
+     */
+    private void block(int left, int top, Dim block) {
+        int[][] moves = BLOCKS.get(block);
+        int[] order = new int[block.area()];
+        for (int x = 0; x < block.x(); x++) {
+            for (int y = 0; y < block.y(); y++) {
+                order[moves[x][y] - 1] = new Dim(left + x, top + y).linear(size);
+            }
+        }
+        for (int i = 0; i < order.length; i++) {
+            link(order[i], order[(i + 1) % order.length]);
+        }
+    }
+
+    /**
+     * Verbindet die Touren zweier Blöcke über deren Sprünge JOINS[first] und JOINS[second]
+     */
+    private void join(int left1, int top1, Dim block1, int first, int left2, int top2, Dim block2, int second) {
+        int a1 = square(left1, top1, block1, JOINS[first], 0), a2 = square(left1, top1, block1, JOINS[first], 2);
+        int b1 = square(left2, top2, block2, JOINS[second], 0), b2 = square(left2, top2, block2, JOINS[second], 2);
+        unlink(a1, a2);
+        unlink(b1, b2);
+        link(a1, b1);
+        link(a2, b2);
+    }
+
+    private int square(int left, int top, Dim block, int[] join, int offset) {
+        int x = join[offset] < 0 ? block.x() + join[offset] : join[offset];
+        int y = join[offset + 1] < 0 ? block.y() + join[offset + 1] : join[offset + 1];
+        return new Dim(left + x, top + y).linear(size);
+    }
+
+    private void link(int a, int b) {
+        links[2 * a + (links[2 * a] < 0 ? 0 : 1)] = b;
+        links[2 * b + (links[2 * b] < 0 ? 0 : 1)] = a;
+    }
+
+    private void unlink(int a, int b) {
+        if (links[2 * a] != b && links[2 * a + 1] != b) {
+            throw new IllegalStateException("Missing join in block tour at " + a + "-" + b);
+        }
+        links[2 * a + (links[2 * a] == b ? 0 : 1)] = -1;
+        links[2 * b + (links[2 * b] == a ? 0 : 1)] = -1;
+    }
+
+    /**
+     * Folgt der Tour ab Feld start
+     */
+    private int[] walk(int start) {
+        int[] path = new int[size.area()];
+        int previous = -1, current = start;
+        for (int i = 0; i < path.length; i++) {
+            path[i] = current;
+            int next = links[2 * current] != previous ? links[2 * current] : links[2 * current + 1];
+            previous = current;
+            current = next;
+        }
+        return path;
+    }
+
+    /**
+     * Prüft, dass path jedes Feld genau einmal besucht, nur aus Springerzügen besteht und geschlossen ist
+     */
+    static void validate(Dim size, int[] path) {
+        boolean[] visited = new boolean[size.area()];
+        for (int i = 0; i < path.length; i++) {
+            int from = path[i], to = path[(i + 1) % path.length];
+            int dx = Math.abs(from % size.x() - to % size.x()), dy = Math.abs(from / size.x() - to / size.x());
+            if (visited[from] || dx * dy != 2) {
+                throw new IllegalStateException("Constructed tour is invalid at step " + (i + 1));
+            }
+            visited[from] = true;
+        }
+        if (path.length != size.area()) {
+            throw new IllegalStateException("Constructed tour is incomplete");
+        }
+    }
+}
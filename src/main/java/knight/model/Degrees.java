@@ -0,0 +1,116 @@
+package knight.model;
+
+/**
+ * Restgrad (Anzahl unbesuchter Nachbarn) je Knoten eines {@link Graph}, inkrementell nachgeführt,
+ * um Teilbäume ohne mögliche Lösung abzuschneiden.
+ * <p>
+ * Vom aktuellen Knoten c aus muss ein Pfad durch alle unbesuchten Knoten führen. Jeder unbesuchte Knoten
+ * braucht darin zwei Nachbarn unter den unbesuchten Knoten und c, nur der Endknoten kommt mit einem aus.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+final class Degrees {
+    private final Graph graph;
+    private final int connectivity;     // Intervall (Züge) der Zusammenhangsprüfung, 0 = keine
+    private final int[] degree;         // unbesuchte Nachbarn, gültig für unbesuchte Knoten
+    private final boolean[] visited;
+    private final int[] queue;          // Puffer Zusammenhangsprüfung
+    private final int[] mark;           // Durchlauf der letzten Zusammenhangsprüfung je Knoten
+    private int pass;
+    private int free;   // unbesuchte Knoten
+    private int zeros;  // unbesuchte Knoten ohne unbesuchte Nachbarn
+    private int ones;   // unbesuchte Knoten mit höchstens einem unbesuchten Nachbarn
+
+    Degrees(Graph graph, int connectivity) {
+        this.graph = graph;
+        this.connectivity = connectivity;
+        this.degree = graph.degree.clone();
+        this.visited = new boolean[graph.nodes];
+        this.queue = new int[graph.nodes];
+        this.mark = new int[graph.nodes];
+        this.free = graph.nodes;
+        for (int d : degree) {
+            if (d == 0) zeros++;
+            if (d <= 1) ones++;
+        }
+    }
+
+    Degrees(Degrees copy) {
+        this.graph = copy.graph;
+        this.connectivity = copy.connectivity;
+        this.degree = copy.degree.clone();
+        this.visited = copy.visited.clone();
+        this.queue = new int[graph.nodes];
+        this.mark = new int[graph.nodes];
+        this.free = copy.free;
+        this.zeros = copy.zeros;
+        this.ones = copy.ones;
+    }
+
+    void visit(int node) {
+        visited[node] = true;
+        free--;
+        if (degree[node] == 0) zeros--;
+        if (degree[node] <= 1) ones--;
+        for (int i = node * Graph.DEGREE, end = i + graph.degree[node]; i < end; i++) {
+            int neighbour = graph.neighbours[i];
+            int d = --degree[neighbour];
+            if (!visited[neighbour]) {
+                if (d == 1) ones++;
+                else if (d == 0) zeros++;
+            }
+        }
+    }
+
+    void leave(int node) {
+        for (int i = node * Graph.DEGREE, end = i + graph.degree[node]; i < end; i++) {
+            int neighbour = graph.neighbours[i];
+            int d = degree[neighbour]++;
+            if (!visited[neighbour]) {
+                if (d == 1) ones--;
+                else if (d == 0) zeros--;
+            }
+        }
+        visited[node] = false;
+        free++;
+        if (degree[node] == 0) zeros++;
+        if (degree[node] <= 1) ones++;
+    }
+
+    /**
+     * Prüft ob vom aktuellen Knoten node aus keine Lösung mehr möglich ist
+     */
+    boolean isDead(int node, int step) {
+        int zeros = this.zeros, ones = this.ones;
+        // Nachbarn von node haben einen zusätzlichen Nachbarn
+        for (int i = node * Graph.DEGREE, end = i + graph.degree[node]; i < end; i++) {
+            int neighbour = graph.neighbours[i];
+            if (!visited[neighbour]) {
+                if (degree[neighbour] == 0) zeros--;
+                else if (degree[neighbour] == 1) ones--;
+            }
+        }
+        if (zeros > 0 || ones > 1) return true;
+        return connectivity > 0 && step % connectivity == 0 && !isConnected(node);
+    }
+
+    /**
+     * Sind alle unbesuchten Knoten von node aus über unbesuchte Knoten erreichbar
+     */
+    private boolean isConnected(int node) {
+        pass++;
+        int head = 0, tail = 0;
+        queue[tail++] = node;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = current * Graph.DEGREE, end = i + graph.degree[current]; i < end; i++) {
+                int neighbour = graph.neighbours[i];
+                if (!visited[neighbour] && mark[neighbour] != pass) {
+                    mark[neighbour] = pass;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail - 1 == free;
+    }
+}
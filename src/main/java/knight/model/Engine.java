@@ -1,10 +1,26 @@
 package knight.model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.UnaryOperator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Multithread Backtracking Algorithmus für Springerproblem
@@ -13,11 +29,101 @@ import java.util.stream.Stream;
  */
 public class Engine {
     public static final int DEFAULT_THREAD_COUNT = 4;
+    public static final List<Integer> THREAD_COUNTS = List.of(1, 2, 4, 6, 8, 12, 16);  // Auswahl in Menü und Vergleich
 
-    private final AtomicInteger solutionCount = new AtomicInteger(0);
-    private final AtomicLong moveCount = new AtomicLong(0);
-    private final BlockingQueue<Board> solutionBuffer = new ArrayBlockingQueue<>(256);
+    /**
+     * Datenstruktur des Spielfelds während der Suche
+     */
+    public enum Representation {
+        ARRAY,      // int[][] mit Zugvektoren {@link Board#MOVES}
+        TABLE,      // Adjazenztabelle der freien Felder
+        BITBOARD    // Bitmaske mit vorberechneten Sprungzielen, bis 64 freie Felder
+    }
+
+    /**
+     * Parallelisierung der Teilbäume
+     */
+    public enum Execution {
+        POOL,       // fester Threadpool, Teilbäume ab Zugtiefe threadThreshold, limitiert durch Semaphore
+        FORK_JOIN,  // Work-Stealing, Teilbäume bis Zugtiefe threadThreshold
+        VIRTUAL     // wie POOL auf virtuellen Threads (ab Java 21), Träger-Threads gelten für die ganze JVM
+    }
+
+    /**
+     * Entscheidung über die Abspaltung von Teilbäumen bei {@link Execution#FORK_JOIN}
+     */
+    public enum Split {
+        FIXED,      // alle Teilbäume bis Zugtiefe threadThreshold
+        ADAPTIVE    // Teilbäume mit geschätzter Grösse ab SPLIT_GRAIN Zügen, solange der Pool Arbeit braucht
+    }
+
+    /**
+     * Reihenfolge, in der die Sprungziele eines Feldes versucht werden
+     */
+    public enum Order {
+        FIXED,      // Reihenfolge der Datenstruktur
+        WARNSDORFF, // wenigste weitere Sprungziele zuerst
+        RANDOM      // zufällige Reihenfolge, je Suche andere Lösungen zuerst, siehe {@link Portfolio}
+    }
+
+    /**
+     * Ausnutzung von Spiegelsymmetrien, unter denen Startfeld und gesperrte Felder unverändert bleiben
+     */
+    public enum Symmetry {
+        NONE,       // alle ersten Züge durchsuchen
+        REDUCE,     // nur kanonische erste Züge, Anzahl Lösungen hochgerechnet, Ausgabe nur kanonische Lösungen
+        MIRROR      // wie REDUCE, Ausgabe zusätzlich aller gespiegelten Lösungen
+    }
+
+    /**
+     * Stand einer Suche, siehe {@link #result()}
+     */
+    public enum Status {
+        RUNNING,    // Suche läuft
+        COMPLETE,   // alle Lösungen gefunden
+        TRUNCATED,  // nach limit Lösungen gestoppt
+        TIMED_OUT,  // Zeitbudget abgelaufen
+        CANCELLED,  // durch {@link #stop()} oder Schliessen des Streams abgebrochen
+        FAILED      // durch einen Fehler abgebrochen, siehe {@link #errors()}
+    }
+
+    /**
+     * Ergebnis einer Suche: Stand, gefundene Lösungen, Züge und Laufzeit
+     */
+    public record Result(Status status, long solutions, long moves, long nanos) {
+        public String toString() {
+            return String.format("%s, Lösungen: %d, Züge: %d, Zeit (ms): %d", status, solutions, moves, nanos / 1_000_000);
+        }
+    }
+
+    static final long SPLIT_GRAIN = 1 << 20;   // angestrebte Mindestgrösse (Züge) eines Teilbaums
+    static final int SPLIT_PROBES = 8;      // Zufallspfade je Schätzung
+    static final int SPLIT_SURPLUS = 2;     // überzählige Tasks in der Queue, ab denen nicht mehr abgespalten wird
+    static final int CACHE_REMAINING = 12;  // freie Felder, ab denen ein Zustand in die Transpositionstabelle kommt
+    static final long PUBLISH_MASK = (1 << 14) - 1;  // Züge zwischen zwei Übergaben an den Zugzähler, minus 1
+    static final int BATCH_SIZE = 64;       // Lösungen je übergebenem Paket
+    static final long BATCH_NANOS = 100_000_000;    // maximales Alter eines Pakets bis zur Übergabe
+    static final int BATCH_QUEUE = 16;      // Pakete im Übergabepuffer, darüber warten die Worker
+    static final long HANDOFF_MILLIS = 10;  // Intervall, in dem wartende Worker das Schliessen des Streams prüfen
+    private static final List<Board> END = Collections.emptyList();   // letztes Paket
+    private static final ThreadFactory VIRTUAL_THREADS = virtualThreads();  // null vor Java 21
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "engine-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong solutionCount = new AtomicLong(0);
+    private final AtomicLong moveCount = new AtomicLong(0);    // Züge aus Checkpoint
+    // Zugzähler je Thread-Name, alle virtuellen Threads (ohne Namen) teilen sich einen, damit die Anzahl Zähler
+    // durch die Grösse der Pools begrenzt bleibt
+    private final Map<String, LongAdder> moveCounters = new ConcurrentHashMap<>();
+    private final ThreadLocal<LongAdder> moveCounter = ThreadLocal.withInitial(() -> moveCounters.computeIfAbsent(
+            Thread.currentThread().getName().isEmpty() ? "virtual" : Thread.currentThread().getName(),
+            name -> new LongAdder()));
+    private final BlockingQueue<List<Board>> solutionBuffer = new ArrayBlockingQueue<>(BATCH_QUEUE);
     private final AtomicInteger errors = new AtomicInteger(0);
+    private final EngineMetrics metrics = new EngineMetrics(this);
 
     private final Board board;  // Spielfeld
     private final int threadCount;  // Grösse des Threadpools
@@ -25,7 +131,38 @@ public class Engine {
 
     private Semaphore concurrent;  // Semaphore limitiert gleichzeitige Threads
     private ExecutorService executor;   // Threadpool
-    private boolean stop;   // Anforderung zum Stop der Lösungssuche
+    private ForkJoinPool pool;  // geteilter Pool für {@link Execution#FORK_JOIN}, null = eigener Pool je Suche
+    private volatile boolean stop;   // Anforderung zum Stop der Lösungssuche
+    private volatile Status status = Status.RUNNING;    // Grund des Stops, nach Ende der Suche deren Stand
+    private long timeout;   // Zeitbudget (ns) der Suche, 0 = keines
+    private long started;   // Beginn der Suche (ns)
+    private volatile long finished; // Ende der Suche (ns), 0 solange sie läuft
+    private volatile boolean detached;  // Stream geschlossen, Lösungen werden nicht mehr abgeholt
+    private int limit = Integer.MAX_VALUE;  // maximale Anzahl Lösungen
+    private boolean counting;   // Lösungen nur zählen, keine Boards erzeugen
+    private Symmetry symmetry = Symmetry.NONE;
+    private Mirror[] mirrors = {Mirror.NONE};   // Symmetrien von Startfeld und gesperrten Feldern
+    private boolean closed;     // nur geschlossene Touren
+    private Dim start;  // gewünschtes Startfeld
+    private Dim origin; // Startfeld der Suche, bei geschlossenen Touren kanonisch
+    private Representation representation = Representation.ARRAY;
+    private Execution execution = Execution.POOL;
+    private Split split = Split.FIXED;
+    private Order order = Order.FIXED;
+    private boolean pruning;    // aussichtslose Teilbäume abschneiden
+    private int connectivity;   // Intervall (Züge) der Zusammenhangsprüfung beim Abschneiden, 0 = keine
+    private int splitDepth;  // Zugtiefe bis zu welcher adaptiv abgespalten wird
+    private int cacheSize;  // Einträge der Transpositionstabelle, 0 = keine
+    private Transpositions cache;
+    private Path checkpointFile;    // Fortschritt der Suche, null = keiner
+    private Checkpoint checkpoint;
+    private int unitDepth;  // Zugtiefe der Teilbäume, deren Abschluss im Checkpoint vermerkt wird
+    private int prefixDepth;    // gewünschte Zugtiefe der Teilbäume, 0 = threadThreshold
+    private int shardIndex;     // eigener Anteil bei verteilter Suche
+    private int shardCount = 1; // Anzahl Anteile
+    private int cacheDepth;  // Zugtiefe ab der nicht mehr abgespalten wird, ab hier werden Zustände gespeichert
+    private long[] taskSizes = new long[64];    // Züge je Teilbaum
+    private int tasks;
 
     public Engine(Dim size) {
         this(size, DEFAULT_THREAD_COUNT, new Dim[]{});
@@ -51,122 +188,757 @@ public class Engine {
         Engine engine = new Engine(new Dim(5, 5), DEFAULT_THREAD_COUNT);
         Formatter formatter = new Formatter();
         long result = engine.solve(1, 1).map(formatter::format).peek(System.out::println).count();
-        System.out.printf("Lösungen: %d, Züge: %d%n", result, engine.moveCount.get());
+        System.out.printf("Lösungen: %d, Züge: %d%n", result, engine.moves());
+        System.out.println(engine.taskStatistics());
     }
 
     /**
-     *  Hauptroutine für Multithread Backtracking
+     *  Hauptroutine für Multithread Backtracking, Stream schliessen siehe {@link #solve(int, int, int, Duration)}
      *
      */
     public Stream<Board> solve(int x, int y) {
-        executor = Executors.newFixedThreadPool(threadCount);
+        return solve(x, y, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Sucht die ersten limit Lösungen, danach wird die Suche gestoppt
+     */
+    public Stream<Board> solve(int x, int y, int limit) {
+        return solve(x, y, limit, Duration.ZERO);
+    }
+
+    /**
+     * Sucht die ersten limit Lösungen innerhalb des Zeitbudgets timeout (0 = unbegrenzt), danach wird die Suche
+     * gestoppt. Ob sie vollständig war, siehe {@link #result()} nach dem Ende des Streams.
+     * <p>
+     * Wird der Stream nicht bis zum Ende gelesen, muss er geschlossen werden (try-with-resources): sonst warten
+     * die Worker unbegrenzt auf Platz im Übergabepuffer und die Suche bleibt samt JMX Registrierung bestehen.
+     */
+    public Stream<Board> solve(int x, int y, int limit, Duration timeout) {
+        this.limit = limit;
+        this.counting = false;
+        this.timeout = timeout.toNanos();
+        return start(x, y);
+    }
+
+    /**
+     * Eine geschlossene Tour ab (x,y) ohne Suche, zusammengesetzt aus vorberechneten Blöcken, siehe
+     * {@link Construction}. Nur für Bretter ohne gesperrte Felder mit geraden Seitenlängen ab 6.
+     */
+    public Stream<Board> construct(int x, int y) {
+        if (board.blacks > 0) {
+            throw new IllegalStateException("Construction requires a board without blacks");
+        }
+        started = System.nanoTime();
+        Board tour = Construction.tour(board.size, new Dim(x, y));
+        solutionCount.set(1);
+        status = Status.TRUNCATED;  // eine von vielen Touren
+        finished = System.nanoTime();
+        return Stream.of(tour);
+    }
+
+    /**
+     * Zählt alle Lösungen ohne sie als Board zu erzeugen, Züge siehe {@link #moves()}
+     */
+    public long count(int x, int y) {
+        return count(x, y, Duration.ZERO).solutions();
+    }
+
+    /**
+     * Zählt die Lösungen innerhalb des Zeitbudgets timeout (0 = unbegrenzt)
+     */
+    public Result count(int x, int y, Duration timeout) {
+        this.limit = Integer.MAX_VALUE;
+        this.counting = true;
+        this.timeout = timeout.toNanos();
+        start(x, y).forEach(board -> {});
+        return result();
+    }
+
+    /**
+     * Startet die Suche im Hintergrund. Die Worker übergeben Lösungen paketweise und warten, solange der
+     * Übergabepuffer voll ist; Schliessen des Streams beendet die Suche.
+     */
+    private Stream<Board> start(int x, int y) {
+        ThreadFactory daemons = execution == Execution.VIRTUAL ? virtualThreadFactory() : runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = switch (execution) {
+            case POOL -> Executors.newFixedThreadPool(threadCount, daemons);
+            case FORK_JOIN -> pool != null ? pool : new ForkJoinPool(threadCount);
+            case VIRTUAL -> threadPerTask(daemons);
+        };
         concurrent = new Semaphore(threadCount);
-        Thread mainThread = new Thread(() -> {
-            board.move(new Dim(x, y));  // Startposition
-            solve(board);
-            count(board.getCount());
-            executor.shutdown();
+        splitDepth = (board.size.area() - board.blacks) / 2;
+        unitDepth = Math.max(prefixDepth > 0 ? prefixDepth : threadThreshold, 2);
+        cacheDepth = checkpointFile != null ? unitDepth + 1
+                : execution == Execution.FORK_JOIN && split == Split.ADAPTIVE ? splitDepth : threadThreshold + 1;
+        Graph graph = representation == Representation.ARRAY ? null : new Graph(board);
+        Walk walk = walk(graph);
+        start = new Dim(x, y);
+        origin = closed ? graph.position(graph.origin()) : start;
+        mirrors = symmetry == Symmetry.NONE || closed ? new Mirror[]{Mirror.NONE} : Mirror.symmetries(board, start);
+        checkpoint = checkpoint(walk);
+        metrics.register();
+        started = System.nanoTime();
+        ScheduledFuture<?> timer = timeout > 0
+                ? TIMER.schedule(() -> stop(Status.TIMED_OUT), timeout, TimeUnit.NANOSECONDS) : null;
+        Thread mainThread = daemons.newThread(() -> {
             try {
-                if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
-                    errors.incrementAndGet();
-                    throw new RuntimeException("Timeout while waiting for worker threads termination");
+                walk.start(origin.x(), origin.y());  // Startposition
+                if (walk.prefix != null) {
+                    walk.prefix[1] = origin.linear(board.size);
                 }
-            } catch (InterruptedException e) {
-                errors.incrementAndGet();
-                throw new RuntimeException("Main solution thread interrupted: ", e);
+                switch (execution) {
+                    case POOL, VIRTUAL -> solvePool(walk);
+                    case FORK_JOIN -> solveForkJoin(walk);
+                }
+                if (checkpoint != null && !stop) {
+                    checkpoint.finish(walk.count, walk.solutions);
+                }
+            } catch (RuntimeException e) {
+                fail();
+                throw e;
             } finally {
-                solution(Board.SENTINEL);
+                if (checkpoint != null) {
+                    try {
+                        checkpoint.close();
+                    } catch (IOException e) {
+                        fail();
+                    }
+                }
+                metrics.unregister();
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                synchronized (this) {
+                    if (!stop) {
+                        status = Status.COMPLETE;
+                    }
+                    finished = System.nanoTime();
+                }
+                handoff(END);
             }
         });
         mainThread.start();
-        // Solutions aus Buffer lesen und und als Rückgabewert streamen
+        return StreamSupport.stream(new Solutions(), false).onClose(() -> {
+            detached = true;
+            stop(Status.CANCELLED);
+            solutionBuffer.clear();     // wartende Worker freigeben
+            try {
+                mainThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void solvePool(Walk walk) {
         try {
-            UnaryOperator<Board> take = b -> {
-                try {
-                    return solutionBuffer.take();
-                } catch (InterruptedException e) {
-                    errors.incrementAndGet();
-                    throw new RuntimeException("Solution stream interrupted ", e);
-                }
-            };
-            return Stream.iterate(solutionBuffer.take(), b -> b != Board.SENTINEL, take).filter(b -> b != Board.SENTINEL);
+            solve(walk, null);
+            count(walk);
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.MINUTES)) {
+                throw new RuntimeException("Timeout while waiting for worker threads termination");
+            }
         } catch (InterruptedException e) {
-            errors.incrementAndGet();
-            throw new RuntimeException("Solution stream  interrupted ", e);
+            throw new RuntimeException("Main solution thread interrupted: ", e);
         }
     }
 
+    private void solveForkJoin(Walk walk) {
+        try {
+            ((ForkJoinPool) executor).invoke(new Subtree(null, walk));
+        } finally {
+            if (executor != pool) {
+                executor.shutdown();
+            }
+        }
+    }
 
     /**
-     * Springt um x,y und sucht neue Sprungposition
+     * Springt um x,y und sucht neue Sprungposition, task ist der laufende Fork/Join Task oder null
      */
-    private void solve(Board board) {
+    private void solve(Walk walk, Subtree task) {
         if (stop) return;
-        for (Dim move : Board.MOVES) {
-            if (board.check(move)) {
-                board.move(move);
-                // step();
-                if (board.isSolved()) {
-                    solution(new Board(board));
+        int[] targets = walk.buffer(walk.step);
+        int n = walk.targets(targets);
+        if (order == Order.WARNSDORFF) {
+            walk.warnsdorff(targets, n);
+        } else if (order == Order.RANDOM) {
+            walk.shuffle(targets, n);
+        }
+        Mirror[] images = walk.images;
+        for (int i = 0; i < n && !stop; i++) {
+            int target = targets[i];
+            if (walk.step == 1 && mirrors.length > 1) {
+                // erster Zug: nur kanonische Sprungziele, Lösungen gelten für alle Bilder
+                walk.images = Mirror.images(mirrors, walk.position(target), board.size);
+                if (walk.images == null) continue;
+            }
+            if (walk.prefix != null && walk.step < unitDepth) {
+                walk.prefix[walk.step + 1] = walk.position(target).linear(board.size);
+                if (walk.step + 1 == unitDepth && skip(prefix(walk))) {
+                    walk.count++;   // Sprung in den Teilbaum wie bei vollständiger Suche zählen
+                    continue;
+                }
+            }
+            walk.move(target);
+            if ((walk.count & PUBLISH_MASK) == 0) {
+                publish(walk);
+            }
+            if (walk.isSolved()) {
+                solution(walk);
+            } else if (!walk.isDead()) {
+                if (split(walk, task)) {
+                    fork(walk, task);
+                } else if (cache != null && walk.step >= cacheDepth && walk.depth - walk.step >= CACHE_REMAINING) {
+                    solveCached((BitBoard) walk, task);
                 } else {
-                    if (board.step == threadThreshold) {
-                        lock();
-                        final Board subBoard = new Board(board);
-                        executor.submit(() -> {
-                            solve(subBoard);
-                            count(subBoard.getCount());
-                            unlock();
-                        });
-                    } else {
-                        solve(board);
-                    }
+                    solve(walk, task);
                 }
-                board.undo(move);
             }
+            walk.undo(target);
         }
+        walk.images = images;   // nach den ersten Zügen wieder die Bilder vor der Suche
     }
 
-    public int solutions() {
+    /**
+     * Sucht ab walk über die Transpositionstabelle: bekannte Zustände ohne Lösung werden übersprungen,
+     * beim Zählen auch Zustände mit bekannter Anzahl Lösungen. Abgebrochene Teilbäume werden nicht gespeichert.
+     */
+    private void solveCached(BitBoard walk, Subtree task) {
+        long completions = cache.get(walk.visited, walk.node);
+        if (completions == 0 || completions > 0 && counting) {
+            walk.tours += completions;
+            walk.solutions += completions * walk.images.length;
+            return;
+        }
+        long tours = walk.tours;
+        solve(walk, task);
+        if (!stop) {
+            cache.put(walk.visited, walk.node, walk.tours - tours);
+        }
+    }
+
+    private boolean split(Walk walk, Subtree task) {
+        if (checkpoint != null) {
+            return walk.step == unitDepth;
+        }
+        if (execution != Execution.FORK_JOIN) {
+            return walk.step == threadThreshold;
+        }
+        return split == Split.FIXED ? walk.step <= threadThreshold : task.split(walk);
+    }
+
+    /**
+     * Schätzt die Anzahl Züge im Teilbaum ab walk über zufällige Pfade (Knuth), ohne sie zu zählen
+     */
+    private long estimate(Walk walk) {
+        long count = walk.count;
+        int step = walk.step;
+        int[] path = new int[walk.depth + 1];
+        double sum = 0;
+        for (int probe = 0; probe < SPLIT_PROBES; probe++) {
+            double size = 0, width = 1;
+            for (int n = walk.targets(walk.buffer(walk.step)); n > 0; n = walk.targets(walk.buffer(walk.step))) {
+                width *= n;
+                size += width;
+                path[walk.step] = walk.buffer(walk.step)[ThreadLocalRandom.current().nextInt(n)];
+                walk.move(path[walk.step]);
+            }
+            while (walk.step > step) {
+                walk.undo(path[walk.step - 1]);
+            }
+            sum += size;
+        }
+        walk.count = count;
+        return (long) Math.min(sum / SPLIT_PROBES, Long.MAX_VALUE);
+    }
+
+    /**
+     * Übergibt Kopie des Teilbaums an den Threadpool
+     */
+    private void fork(Walk walk, Subtree task) {
+        final Walk subWalk = walk.copy();
+        if (task == null) {
+            lock();
+            try {
+                executor.submit(() -> {
+                    metrics.activeTasks.incrementAndGet();
+                    try {
+                        solve(subWalk, null);
+                        count(subWalk);
+                    } catch (RuntimeException e) {
+                        fail();     // sonst nur im nie abgefragten Future vermerkt
+                        throw e;
+                    } finally {
+                        metrics.activeTasks.decrementAndGet();
+                        unlock();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                unlock();
+                throw e;
+            }
+        } else {
+            task.addToPendingCount(1);
+            new Subtree(task, subWalk).fork();
+        }
+    }
+
+    public long solutions() {
         return solutionCount.get();
     }
 
     public long moves() {
-        return moveCount.getOpaque();
+        long moves = moveCount.get();
+        for (LongAdder counter : moveCounters.values()) {
+            moves += counter.sum();
+        }
+        return moves;
     }
 
     public int errors() {
         return errors.get();
     }
 
+    public Representation getRepresentation() {
+        return representation;
+    }
+
+    public void setRepresentation(Representation representation) {
+        this.representation = representation;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public void setExecution(Execution execution) {
+        this.execution = execution;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public boolean isPruning() {
+        return pruning;
+    }
+
+    /**
+     * Schneidet Teilbäume ab, in denen ein unbesuchtes Feld nicht mehr erreichbar ist oder mehr als ein
+     * Feld als Endfeld in Frage kommt (nur {@link Representation#TABLE} und {@link Representation#BITBOARD})
+     */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    public int getConnectivity() {
+        return connectivity;
+    }
+
+    /**
+     * Prüft beim Abschneiden alle interval Züge zusätzlich den Zusammenhang der unbesuchten Felder, 0 = nie
+     */
+    public void setConnectivity(int interval) {
+        this.connectivity = interval;
+    }
+
+    public Symmetry getSymmetry() {
+        return symmetry;
+    }
+
+    public void setSymmetry(Symmetry symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Sucht nur geschlossene Touren, jeder Zyklus wird einmal gezählt. Die Suche beginnt auf einem kanonischen
+     * Startfeld, gestreamte Lösungen sind auf das gewünschte Startfeld umnummeriert.
+     * Nur {@link Representation#TABLE} und {@link Representation#BITBOARD}.
+     */
+    public void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Transpositionstabelle mit entries Einträgen (auf Zweierpotenz abgerundet, höchstens 2^29), 0 = keine.
+     * Nur {@link Representation#BITBOARD}, keine geschlossenen Touren.
+     */
+    public void setCacheSize(int entries) {
+        if (entries < 0 || entries > Transpositions.MAX_ENTRIES) {
+            throw new IllegalArgumentException("Cache size " + entries + " not in 0.." + Transpositions.MAX_ENTRIES);
+        }
+        this.cacheSize = entries;
+    }
+
+    /**
+     * Abfragen der Transpositionstabelle der letzten Suche
+     */
+    public long cacheLookups() {
+        return cache == null ? 0 : cache.lookups();
+    }
+
+    /**
+     * Treffer der Transpositionstabelle der letzten Suche
+     */
+    public long cacheHits() {
+        return cache == null ? 0 : cache.hits();
+    }
+
+    public Path getCheckpoint() {
+        return checkpointFile;
+    }
+
+    /**
+     * Vermerkt abgeschlossene Teilbäume in file. Existiert file von einer gleichen, unterbrochenen Suche,
+     * werden deren abgeschlossene Teilbäume übersprungen und ihre Züge und Lösungen übernommen.
+     * Teilbäume werden dabei unabhängig von {@link #setSplit(Split)} genau auf der Zugtiefe aus
+     * {@link #setPrefixDepth(int)} abgespalten (mindestens 2, ohne Angabe threadThreshold).
+     */
+    public void setCheckpoint(Path file) {
+        this.checkpointFile = file;
+    }
+
+    public int getPrefixDepth() {
+        return prefixDepth;
+    }
+
+    /**
+     * Zugtiefe der Teilbäume für Checkpoint und verteilte Suche, mindestens 2, 0 = threadThreshold
+     */
+    public void setPrefixDepth(int depth) {
+        this.prefixDepth = depth;
+    }
+
+    /**
+     * Durchsucht nur den Anteil index von count: Teilbäume werden anhand ihres Präfixes fest einem Anteil
+     * zugeordnet. Ergebnisse landen in der Datei aus {@link #setCheckpoint(Path)}, zusammengeführt mit
+     * {@link Shards#merge(List)}.
+     */
+    public void setShard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+        }
+        this.shardIndex = index;
+        this.shardCount = count;
+    }
+
+    /**
+     * Sucht mit {@link Execution#FORK_JOIN} im geteilten Pool, der nach der Suche nicht beendet wird
+     */
+    void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        this.execution = Execution.FORK_JOIN;
+    }
+
+    public Split getSplit() {
+        return split;
+    }
+
+    /**
+     * Wirkt nur mit {@link Execution#FORK_JOIN} ohne Checkpoint, {@link Execution#POOL} und
+     * {@link Execution#VIRTUAL} spalten immer auf der Zugtiefe threadThreshold ab
+     */
+    public void setSplit(Split split) {
+        this.split = split;
+    }
+
+    /**
+     * Anzahl und Grösse der bisher abgeschlossenen Teilbäume
+     */
+    public synchronized TaskStatistics taskStatistics() {
+        return TaskStatistics.of(Arrays.copyOf(taskSizes, tasks));
+    }
+
+    /**
+     * Bricht die Suche ab, alle Worker beenden ihren Teilbaum spätestens beim nächsten Zug
+     */
     public void stop() {
+        stop(Status.CANCELLED);
+    }
+
+    private synchronized void stop(Status reason) {
+        if (!stop && finished == 0) {
+            status = reason;
+        }
+        this.stop = true;
+    }
+
+    /**
+     * Zählt einen Fehler und bricht die Suche ab, deren Stand bleibt {@link Status#FAILED}
+     */
+    private synchronized void fail() {
+        errors.incrementAndGet();
+        status = Status.FAILED;
         this.stop = true;
     }
 
+    /**
+     * Stand der letzten Suche, nach dem Ende des Streams endgültig
+     */
+    public Result result() {
+        long end = finished > 0 ? finished : System.nanoTime();
+        return new Result(finished > 0 ? status : Status.RUNNING, solutions(), moves(), started > 0 ? end - started : 0);
+    }
+
+    /**
+     * Suchzustand für die gewählte Datenstruktur, Adjazenztabellen werden einmal je Suche aufgebaut
+     */
+    private Walk walk(Graph graph) {
+        if (cacheSize > 0 && (representation != Representation.BITBOARD || closed)) {
+            throw new IllegalStateException("Transposition cache requires BITBOARD representation and open tours");
+        }
+        cache = cacheSize > 0 ? new Transpositions(cacheSize) : null;
+        if (representation == Representation.ARRAY) {
+            if (pruning || closed) {
+                throw new IllegalStateException("Pruning and closed tours require TABLE or BITBOARD representation");
+            }
+            return board;
+        }
+        Degrees degrees = pruning ? new Degrees(graph, connectivity) : null;
+        Walk walk = representation == Representation.TABLE ? new TableBoard(graph, degrees) : new BitBoard(graph, degrees);
+        walk.closed = closed;
+        return walk;
+    }
+
+    /**
+     * Ist die Ausführungsart in dieser JVM verfügbar
+     */
+    public static boolean supports(Execution execution) {
+        return execution != Execution.VIRTUAL || VIRTUAL_THREADS != null;
+    }
+
+    /**
+     * Fabrik für virtuelle Threads über Reflection, damit der Code auch unter Java 17 übersetzt wird
+     */
+    private static ThreadFactory virtualThreads() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Virtuelle Threads, gleichzeitig höchstens threadCount über die Semaphore. Die Träger-Threads teilen sich
+     * alle virtuellen Threads der JVM, ihre Anzahl legt der Start der JVM fest (Standard: Anzahl Prozessoren).
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        if (!supports(Execution.VIRTUAL)) {
+            throw new IllegalStateException("Virtual thread execution requires Java 21");
+        }
+        return VIRTUAL_THREADS;
+    }
+
+    private static ExecutorService threadPerTask(ThreadFactory factory) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual thread execution requires Java 21", e);
+        }
+    }
+
     private int threshold(Board board) {
         return (int) (0.1 * board.size.area() + 1 + board.blacks);
     }
 
-    private void solution(Board board) {
-        try {
-            if (board != Board.SENTINEL) {
-                board = new Board(board);
-                solutionCount.incrementAndGet();
+    private void solution(Walk walk) {
+        walk.tours++;
+        walk.solutions += walk.images.length;
+        if (!counting) {
+            Board board = closed && !origin.equals(start) ? walk.toBoard().rotate(start) : walk.toBoard();
+            if (symmetry == Symmetry.MIRROR) {
+                for (Mirror mirror : walk.images) {
+                    solution(walk, mirror == Mirror.NONE ? board : board.mirror(mirror), 1);
+                }
+            } else {
+                solution(walk, board, walk.images.length);
             }
-            if (!solutionBuffer.offer(board, 1, TimeUnit.SECONDS)) {
-                stop();
+        }
+    }
+
+    /**
+     * Sammelt Lösung im Paket des Teilbaums walk, weight ist die Anzahl Lösungen, für die board steht
+     */
+    private void solution(Walk walk, Board board, int weight) {
+        long solutions = solutionCount.getAndUpdate(n -> n < limit ? n + weight : n);
+        if (solutions + weight >= limit) {
+            stop(Status.TRUNCATED);
+        }
+        if (solutions >= limit) {
+            return;
+        }
+        if (walk.batch == null) {
+            walk.batch = new ArrayList<>(BATCH_SIZE);
+            walk.batchTime = System.nanoTime();
+        }
+        walk.batch.add(board);
+        if (walk.batch.size() == BATCH_SIZE || System.nanoTime() - walk.batchTime > BATCH_NANOS) {
+            handoff(walk.batch);
+            walk.batch = null;
+        }
+    }
+
+    /**
+     * Übergibt ein Paket an den Stream, wartet solange der Puffer voll ist
+     */
+    private void handoff(List<Board> batch) {
+        try {
+            if (detached || solutionBuffer.offer(batch)) return;
+            long waiting = System.nanoTime();
+            while (!detached) {
+                if (solutionBuffer.offer(batch, HANDOFF_MILLIS, TimeUnit.MILLISECONDS)) break;
             }
+            metrics.handoffWait.add(System.nanoTime() - waiting);
         } catch (InterruptedException e) {
-            throw new RuntimeException("Interrupted while offering solution ",e);
+            errors.incrementAndGet();
+            throw new RuntimeException("Interrupted while offering solutions ", e);
+        }
+    }
+
+    /**
+     * Übernimmt Züge und gezählte Lösungen eines abgeschlossenen Teilbaums
+     */
+    private void count(Walk walk) {
+        if (walk.batch != null) {
+            handoff(walk.batch);
+            walk.batch = null;
+        }
+        publish(walk);
+        if (counting && walk.solutions > 0) {
+            solutionCount.getAndAdd(walk.solutions);
+        }
+        if (checkpoint != null && walk.step == unitDepth && !stop) {
+            checkpoint.complete(prefix(walk), walk.count, walk.solutions);
+        }
+        task(walk.count);
+    }
+
+    /**
+     * Übergibt die seit der letzten Übergabe gezählten Züge an den Zugzähler des Threads und ein Paket, das
+     * älter als BATCH_NANOS ist, an den Stream, auch wenn im Teilbaum keine weitere Lösung folgt
+     */
+    private void publish(Walk walk) {
+        moveCounter.get().add(walk.count - walk.published);
+        walk.published = walk.count;
+        if (walk.batch != null && System.nanoTime() - walk.batchTime > BATCH_NANOS) {
+            handoff(walk.batch);
+            walk.batch = null;
+        }
+    }
+
+    /**
+     * Bisherige Züge je Thread, virtuelle Threads zusammengefasst
+     */
+    Map<String, Long> threadMoves() {
+        Map<String, Long> moves = new TreeMap<>();
+        moveCounters.forEach((thread, counter) -> moves.put(thread, counter.sum()));
+        return moves;
+    }
+
+    /**
+     * Abgespaltene, noch nicht gestartete Teilbäume
+     */
+    long queuedTasks() {
+        if (executor instanceof ForkJoinPool pool) {
+            return pool.getQueuedTaskCount();
+        }
+        if (executor instanceof ThreadPoolExecutor pool) {
+            return pool.getQueue().size() + (concurrent == null ? 0 : concurrent.getQueueLength());
+        }
+        return concurrent == null ? 0 : concurrent.getQueueLength();
+    }
+
+    /**
+     * JMX Kennzahlen dieser Engine, registriert solange eine Suche läuft
+     */
+    public EngineMXBean metrics() {
+        return metrics;
+    }
+
+    /**
+     * Teilbaum bereits abgeschlossen oder Teil eines anderen Anteils
+     */
+    private boolean skip(String prefix) {
+        return checkpoint.isDone(prefix) || Math.floorMod(prefix.hashCode(), shardCount) != shardIndex;
+    }
+
+    /**
+     * Öffnet den Checkpoint und übernimmt die Zähler bereits abgeschlossener Teilbäume
+     */
+    private Checkpoint checkpoint(Walk walk) {
+        if (checkpointFile == null) {
+            if (shardCount > 1) {
+                throw new IllegalStateException("Sharded search requires a result file, see setCheckpoint");
+            }
+            return null;
+        }
+        String search = String.format("knight %s blacks=%s start=%s depth=%d symmetry=%b closed=%b pruning=%b/%d",
+                board.size, Arrays.toString(blacks()), start, unitDepth, mirrors.length > 1, closed, pruning, connectivity)
+                + (shardCount > 1 ? String.format(" shard=%d/%d", shardIndex, shardCount) : "");
+        try {
+            Checkpoint checkpoint = new Checkpoint(checkpointFile, search);
+            moveCount.addAndGet(checkpoint.moves);
+            solutionCount.addAndGet(checkpoint.solutions);
+            walk.prefix = new int[unitDepth + 1];
+            return checkpoint;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private void count(long moves) {
-        moveCount.getAndAdd(moves);
+    private int[] blacks() {
+        return IntStream.range(0, board.size.area())
+                .filter(i -> board.board[i % board.size.x()][i / board.size.x()] == -1).toArray();
+    }
+
+    /**
+     * Schlüssel des Teilbaums ab walk im Checkpoint
+     */
+    private String prefix(Walk walk) {
+        StringBuilder prefix = new StringBuilder();
+        for (int step = 1; step <= unitDepth; step++) {
+            prefix.append(step > 1 ? "." : "").append(walk.prefix[step]);
+        }
+        return prefix.toString();
+    }
+
+    private synchronized void task(long moves) {
+        if (tasks == taskSizes.length) {
+            taskSizes = Arrays.copyOf(taskSizes, 2 * tasks);
+        }
+        taskSizes[tasks++] = moves;
     }
 
     private void lock() {
         try {
-            concurrent.acquire();
+            if (!concurrent.tryAcquire()) {
+                long waiting = System.nanoTime();
+                concurrent.acquire();
+                metrics.semaphoreWait.add(System.nanoTime() - waiting);
+            }
         } catch (InterruptedException e) {
             throw new RuntimeException("Interrupted  while acquiring worker thread ", e);
         }
@@ -175,4 +947,70 @@ public class Engine {
     private void unlock() {
         concurrent.release();
     }
-}
\ No newline at end of file
+
+    /**
+     * Liest die Lösungen paketweise aus dem Übergabepuffer bis zum letzten Paket
+     */
+    private final class Solutions extends Spliterators.AbstractSpliterator<Board> {
+        private Iterator<Board> batch = END.iterator();
+        private boolean done;
+
+        Solutions() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Board> action) {
+            while (!batch.hasNext()) {
+                if (done) return false;
+                try {
+                    List<Board> next = solutionBuffer.take();
+                    done = next == END;
+                    batch = next.iterator();
+                } catch (InterruptedException e) {
+                    errors.incrementAndGet();
+                    throw new RuntimeException("Solution stream interrupted ", e);
+                }
+            }
+            action.accept(batch.next());
+            return true;
+        }
+    }
+
+    /**
+     * Teilbaum als Fork/Join Task, abgeschlossen sobald alle abgespaltenen Teilbäume abgeschlossen sind
+     */
+    private final class Subtree extends CountedCompleter<Void> {
+        private final Walk walk;
+        private int sealed = Integer.MAX_VALUE; // Zugtiefe eines zu kleinen Teilbaums, darunter keine Abspaltung
+
+        Subtree(Subtree parent, Walk walk) {
+            super(parent);
+            this.walk = walk;
+        }
+
+        @Override
+        public void compute() {
+            metrics.activeTasks.incrementAndGet();
+            try {
+                solve(walk, this);
+                count(walk);
+            } finally {
+                metrics.activeTasks.decrementAndGet();
+            }
+            tryComplete();
+        }
+
+        /**
+         * Adaptive Abspaltung: nur wenn der Pool Arbeit braucht und der Teilbaum gross genug ist
+         */
+        boolean split(Walk walk) {
+            if (walk.step > sealed || walk.step >= splitDepth) return false;
+            sealed = Integer.MAX_VALUE;
+            if (getSurplusQueuedTaskCount() > SPLIT_SURPLUS) return false;
+            if (estimate(walk) >= SPLIT_GRAIN) return true;
+            sealed = walk.step;
+            return false;
+        }
+    }
+}
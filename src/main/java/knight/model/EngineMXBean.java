@@ -0,0 +1,62 @@
+package knight.model;
+
+import java.util.Map;
+
+/**
+ * Kennzahlen einer laufenden Suche für JMX, registriert als {@code knight:type=Engine,name=engine-n}
+ * solange die Suche läuft
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public interface EngineMXBean {
+    long getMoves();
+
+    long getSolutions();
+
+    int getErrors();
+
+    /**
+     * Züge je Sekunde seit der letzten Abfrage
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Lösungen je Sekunde seit der letzten Abfrage
+     */
+    double getSolutionsPerSecond();
+
+    /**
+     * Laufende Teilbäume
+     */
+    int getActiveTasks();
+
+    /**
+     * Abgespaltene, noch nicht gestartete Teilbäume
+     */
+    long getQueuedTasks();
+
+    /**
+     * Summe der Wartezeit (ms) aller Worker auf die Semaphore
+     */
+    long getSemaphoreWaitMillis();
+
+    /**
+     * Summe der Wartezeit (ms) aller Worker auf Platz im Übergabepuffer der Lösungen
+     */
+    long getHandoffWaitMillis();
+
+    /**
+     * Abfragen der Transpositionstabelle, 0 ohne Tabelle
+     */
+    long getCacheLookups();
+
+    /**
+     * Anteil der Abfragen der Transpositionstabelle mit bekanntem Zustand, 0 ohne Abfragen
+     */
+    double getCacheHitRate();
+
+    /**
+     * Bisherige Züge je Thread
+     */
+    Map<String, Long> getThreadMoves();
+}
@@ -0,0 +1,135 @@
+package knight.model;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Erfasst die Kennzahlen einer Suche und stellt sie als {@link EngineMXBean} bereit
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+final class EngineMetrics implements EngineMXBean {
+    private static final AtomicInteger ENGINES = new AtomicInteger();
+
+    private final Engine engine;
+    private final ObjectName name;
+    final AtomicInteger activeTasks = new AtomicInteger();
+    final LongAdder semaphoreWait = new LongAdder();   // ns
+    final LongAdder handoffWait = new LongAdder();     // ns
+    private long sampleTime = System.nanoTime();
+    private long sampleMoves;
+    private long sampleSolutions;
+    private double[] rates = {0, 0};     // Züge und Lösungen je Sekunde
+
+    EngineMetrics(Engine engine) {
+        this.engine = engine;
+        try {
+            this.name = new ObjectName("knight:type=Engine,name=engine-" + ENGINES.incrementAndGet());
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void register() {
+        try {
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + name, e);
+        }
+    }
+
+    void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // bereits abgemeldet
+        }
+    }
+
+    ObjectName getName() {
+        return name;
+    }
+
+    @Override
+    public long getMoves() {
+        return engine.moves();
+    }
+
+    @Override
+    public long getSolutions() {
+        return engine.solutions();
+    }
+
+    @Override
+    public int getErrors() {
+        return engine.errors();
+    }
+
+    @Override
+    public double getMovesPerSecond() {
+        return sample()[0];
+    }
+
+    @Override
+    public double getSolutionsPerSecond() {
+        return sample()[1];
+    }
+
+    /**
+     * Raten seit dem vorigen Messpunkt, Abfragen innerhalb von 100ms teilen sich einen Messpunkt
+     */
+    private synchronized double[] sample() {
+        long now = System.nanoTime();
+        if (now - sampleTime >= 100_000_000) {
+            long moves = engine.moves(), solutions = engine.solutions();
+            rates = new double[]{(moves - sampleMoves) * 1e9 / (now - sampleTime),
+                    (solutions - sampleSolutions) * 1e9 / (now - sampleTime)};
+            sampleTime = now;
+            sampleMoves = moves;
+            sampleSolutions = solutions;
+        }
+        return rates;
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    @Override
+    public long getQueuedTasks() {
+        return engine.queuedTasks();
+    }
+
+    @Override
+    public long getSemaphoreWaitMillis() {
+        return semaphoreWait.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getHandoffWaitMillis() {
+        return handoffWait.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getCacheLookups() {
+        return engine.cacheLookups();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long lookups = engine.cacheLookups();
+        return lookups == 0 ? 0 : (double) engine.cacheHits() / lookups;
+    }
+
+    @Override
+    public Map<String, Long> getThreadMoves() {
+        return engine.threadMoves();
+    }
+}
@@ -0,0 +1,118 @@
+package knight.model;
+
+/**
+ * Sprunggraph der freien Felder eines Bretts, einmal je Suche aufgebaut.
+ * Freie Felder sind fortlaufend als Knoten nummeriert, gesperrte Felder kommen nicht vor.
+ * Die Nachbarn eines Knotens stehen ab {@code node * DEGREE} im flachen Array {@link #neighbours}.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+final class Graph {
+    static final int DEGREE = Board.MOVES.length;   // maximale Anzahl Nachbarn
+
+    final Dim size;
+    final int nodes;            // Anzahl freier Felder
+    final int[] index;          // Feldnummer nach {@link Dim#linear(Dim)} -> Knoten, -1 = gesperrt
+    final int[] squares;        // Knoten -> Feldnummer
+    final int[] neighbours;     // Nachbarknoten, DEGREE Einträge je Knoten
+    final int[] degree;         // Anzahl Nachbarn je Knoten
+
+    Graph(Board board) {
+        this.size = board.size;
+        this.index = new int[size.area()];
+        int nodes = 0;
+        for (int square = 0; square < size.area(); square++) {
+            index[square] = board.board[square % size.x()][square / size.x()] == -1 ? -1 : nodes++;
+        }
+        this.nodes = nodes;
+        this.squares = new int[nodes];
+        this.neighbours = new int[nodes * DEGREE];
+        this.degree = new int[nodes];
+        for (int square = 0; square < size.area(); square++) {
+            int node = index[square];
+            if (node < 0) continue;
+            squares[node] = square;
+            int x = square % size.x(), y = square / size.x();
+            for (Dim move : Board.MOVES) {
+                int nx = x + move.x(), ny = y + move.y();
+                if (nx >= 0 && nx < size.x() && ny >= 0 && ny < size.y() && index[new Dim(nx, ny).linear(size)] >= 0) {
+                    neighbours[node * DEGREE + degree[node]++] = index[new Dim(nx, ny).linear(size)];
+                }
+            }
+        }
+    }
+
+    /**
+     * Knoten des Feldes (x,y)
+     */
+    int node(int x, int y) {
+        int node = index[new Dim(x, y).linear(size)];
+        if (node < 0) {
+            throw new IllegalArgumentException("Blocked square: " + new Dim(x, y));
+        }
+        return node;
+    }
+
+    /**
+     * Kanonisches Startfeld für geschlossene Touren: Knoten mit den wenigsten Nachbarn
+     */
+    int origin() {
+        int origin = 0;
+        for (int node = 1; node < nodes; node++) {
+            if (degree[node] < degree[origin]) {
+                origin = node;
+            }
+        }
+        return origin;
+    }
+
+    boolean isNeighbour(int node, int neighbour) {
+        for (int i = node * DEGREE, end = i + degree[node]; i < end; i++) {
+            if (neighbours[i] == neighbour) return true;
+        }
+        return false;
+    }
+
+    Dim position(int node) {
+        return new Dim(squares[node] % size.x(), squares[node] / size.x());
+    }
+
+    /**
+     * Nachbarn je Knoten als Bitmaske, nur für höchstens 64 Knoten
+     */
+    long[] masks() {
+        if (nodes > Long.SIZE) {
+            throw new IllegalArgumentException("Too many free squares for bitmask: " + nodes);
+        }
+        long[] masks = new long[nodes];
+        for (int node = 0; node < nodes; node++) {
+            for (int i = 0; i < degree[node]; i++) {
+                masks[node] |= 1L << neighbours[node * DEGREE + i];
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Darstellbares {@link Board} mit gesperrten Feldern und den Knoten path[1..step] als Zugfolge
+     */
+    Board board(int[] path, int step) {
+        Board board = new Board(size);
+        for (int square = 0; square < size.area(); square++) {
+            if (index[square] < 0) {
+                board.toggleBlack(square % size.x(), square / size.x());
+            }
+        }
+        for (int i = 1; i <= step; i++) {
+            Dim position = position(path[i]);
+            board.board[position.x()][position.y()] = i;
+        }
+        if (step > 0) {
+            Dim position = position(path[step]);
+            board.x = position.x();
+            board.y = position.y();
+        }
+        board.step = step;
+        return board;
+    }
+}
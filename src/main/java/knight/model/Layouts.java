@@ -0,0 +1,248 @@
+package knight.model;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Anzahl Lösungen für viele Vorgaben gesperrter Felder auf derselben Brettgrösse. Alle Suchen laufen im selben
+ * {@link ForkJoinPool}, Vorgaben, die durch eine Spiegelung ineinander übergehen, werden nur einmal durchsucht.
+ * Mit Startfeld zählen nur Spiegelungen, die das Startfeld festhalten, ohne Startfeld werden die Lösungen aller
+ * Startfelder gezählt ({@link Sweep}) und alle Spiegelungen zählen.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public final class Layouts {
+    static final int SEARCHES_PER_THREAD = 2;   // gleichzeitige Suchen je Thread, damit der Pool Arbeit hat
+
+    /**
+     * Ergebnis einer Vorgabe, duplicateOf = Index der gleichwertigen, durchsuchten Vorgabe oder -1
+     */
+    public record Result(Dim[] blacks, long solutions, long moves, int duplicateOf) {
+    }
+
+    private final Dim size;
+    private final int threadCount;
+    private Dim start = new Dim(0, 0);  // null = alle Startfelder
+    private Engine.Representation representation = Engine.Representation.TABLE;
+    private boolean pruning;
+    private int connectivity;
+
+    public Layouts(Dim size, int threadCount) {
+        this.size = size;
+        this.threadCount = threadCount;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Layouts layouts = new Layouts(new Dim(6, 6), Engine.DEFAULT_THREAD_COUNT);
+        layouts.setStart(new Dim(2, 2));
+        layouts.setPruning(true);
+        List<Result> results = layouts.run(new ArrayList<>(presets().values()));
+        Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        write(results, writer);
+        writer.flush();
+    }
+
+    /**
+     * Vorgaben aus {@link Blacks} nach Name
+     */
+    public static Map<String, Dim[]> presets() {
+        return Arrays.stream(Blacks.class.getFields()).collect(Collectors.toMap(Field::getName, field -> {
+            try {
+                return (Dim[]) field.get(null);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * Alle Vorgaben mit k gesperrten Feldern, die unter mirror unverändert bleiben
+     */
+    public static List<Dim[]> symmetric(Dim size, int k, Mirror mirror) {
+        List<Dim[]> orbits = new ArrayList<>();
+        for (int i = 0; i < size.area(); i++) {
+            Dim position = new Dim(i % size.x(), i / size.x());
+            Dim image = mirror.apply(position, size);
+            if (image.linear(size) >= i) {
+                orbits.add(image.equals(position) ? new Dim[]{position} : new Dim[]{position, image});
+            }
+        }
+        List<Dim[]> layouts = new ArrayList<>();
+        choose(orbits, 0, k, new ArrayList<>(), layouts);
+        return layouts;
+    }
+
+    private static void choose(List<Dim[]> orbits, int from, int k, List<Dim> chosen, List<Dim[]> layouts) {
+        if (k == 0) {
+            layouts.add(chosen.toArray(Dim[]::new));
+            return;
+        }
+        for (int i = from; i < orbits.size(); i++) {
+            Dim[] orbit = orbits.get(i);
+            if (orbit.length <= k) {
+                chosen.addAll(Arrays.asList(orbit));
+                choose(orbits, i + 1, k - orbit.length, chosen, layouts);
+                chosen.subList(chosen.size() - orbit.length, chosen.size()).clear();
+            }
+        }
+    }
+
+    /**
+     * Zählt die Lösungen aller Vorgaben, Ergebnisse in der Reihenfolge der Vorgaben
+     */
+    public List<Result> run(List<Dim[]> layouts) {
+        for (Dim[] blacks : layouts) {
+            for (Dim black : blacks) {
+                if (black.x() < 0 || black.x() >= size.x() || black.y() < 0 || black.y() >= size.y()) {
+                    throw new IllegalArgumentException("Square " + black.x() + "," + black.y() + " outside of " + size);
+                }
+            }
+        }
+        Mirror[] mirrors = Arrays.stream(Mirror.values())
+                .filter(mirror -> start == null || mirror.apply(start, size).equals(start)).toArray(Mirror[]::new);
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        ExecutorService searches = Executors.newFixedThreadPool(threadCount * SEARCHES_PER_THREAD, runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, Integer> searched = new HashMap<>();
+        int[] duplicateOf = new int[layouts.size()];
+        List<CompletableFuture<Result>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < layouts.size(); i++) {
+                Dim[] blacks = layouts.get(i);
+                Integer original = searched.putIfAbsent(key(blacks, mirrors), i);
+                duplicateOf[i] = original != null ? original : -1;
+                results.add(original != null ? null : CompletableFuture.supplyAsync(() -> count(blacks, pool), searches));
+            }
+            List<Result> table = new ArrayList<>();
+            for (int i = 0; i < layouts.size(); i++) {
+                if (duplicateOf[i] < 0) {
+                    table.add(results.get(i).join());
+                } else {
+                    Result original = table.get(duplicateOf[i]);
+                    table.add(new Result(layouts.get(i), original.solutions(), 0, duplicateOf[i]));
+                }
+            }
+            return table;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            searches.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    private Result count(Dim[] blacks, ForkJoinPool pool) {
+        Board board = new Board(size, Arrays.stream(blacks).distinct().toArray(Dim[]::new));
+        if (start == null) {
+            Sweep sweep = new Sweep(board, threadCount);
+            sweep.setRepresentation(representation);
+            sweep.setPruning(pruning);
+            sweep.setConnectivity(connectivity);
+            sweep.setPool(pool);
+            long[][] counts;
+            try {
+                counts = sweep.run();   // wirft bei Fehlern einer Suche, siehe {@link Sweep#errors()}
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Search of layout " + format(blacks) + " failed", e);
+            }
+            long solutions = Arrays.stream(counts).flatMapToLong(Arrays::stream).filter(count -> count > 0).sum();
+            return new Result(blacks, solutions, sweep.moves(), -1);
+        }
+        if (board.board[start.x()][start.y()] == -1) {
+            return new Result(blacks, 0, 0, -1);
+        }
+        Engine engine = new Engine(board, threadCount);
+        engine.setRepresentation(representation);
+        engine.setPruning(pruning);
+        engine.setConnectivity(connectivity);
+        engine.setSymmetry(Engine.Symmetry.REDUCE);
+        engine.setPool(pool);
+        long solutions = engine.count(start.x(), start.y());
+        if (engine.errors() > 0) {
+            throw new IllegalStateException("Search of layout " + format(blacks) + " failed");
+        }
+        return new Result(blacks, solutions, engine.moves(), -1);
+    }
+
+    /**
+     * Gleicher Schlüssel für alle Spiegelbilder einer Vorgabe: kleinste Folge sortierter Feldnummern
+     */
+    private String key(Dim[] blacks, Mirror[] mirrors) {
+        return Arrays.stream(mirrors).map(mirror -> Arrays.stream(blacks)
+                        .mapToInt(black -> mirror.apply(black, size).linear(size)).distinct().sorted()
+                        .mapToObj(Integer::toString).collect(Collectors.joining(" ")))
+                .min(String::compareTo).orElseThrow();
+    }
+
+    /**
+     * Gesperrte Felder im Format x,y:x,y
+     */
+    public static String format(Dim[] blacks) {
+        return Arrays.stream(blacks).map(black -> black.x() + "," + black.y()).collect(Collectors.joining(":"));
+    }
+
+    /**
+     * Ergebnistabelle als CSV, eine Zeile je Vorgabe
+     */
+    public static void write(List<Result> results, Writer writer) throws IOException {
+        writer.write("layout,blacks,solutions,moves,duplicate_of\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            writer.write(i + ",\"" + format(result.blacks()) + "\"," + result.solutions() + "," + result.moves() + ","
+                    + (result.duplicateOf() < 0 ? "" : Integer.toString(result.duplicateOf())) + "\n");
+        }
+    }
+
+    public Dim getStart() {
+        return start;
+    }
+
+    /**
+     * Startfeld aller Suchen, null = Lösungen aller Startfelder
+     */
+    public void setStart(Dim start) {
+        this.start = start;
+    }
+
+    public Engine.Representation getRepresentation() {
+        return representation;
+    }
+
+    public void setRepresentation(Engine.Representation representation) {
+        this.representation = representation;
+    }
+
+    public boolean isPruning() {
+        return pruning;
+    }
+
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    public int getConnectivity() {
+        return connectivity;
+    }
+
+    public void setConnectivity(int interval) {
+        this.connectivity = interval;
+    }
+}
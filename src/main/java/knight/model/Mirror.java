@@ -0,0 +1,64 @@
+package knight.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spiegelungen des Bretts, siehe {@link Dim#mirrorHoizontal(int)}, {@link Dim#mirrorVertical(int)}
+ * und {@link Dim#mirrorBoth(Dim)}
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public enum Mirror {
+    NONE, HORIZONTAL, VERTICAL, BOTH;
+
+    public Dim apply(Dim position, Dim size) {
+        return switch (this) {
+            case NONE -> position;
+            case HORIZONTAL -> position.mirrorHoizontal(size.x());
+            case VERTICAL -> position.mirrorVertical(size.y());
+            case BOTH -> position.mirrorBoth(size);
+        };
+    }
+
+    /**
+     * Spiegelungen, unter denen gesperrte Felder und das Feld start unverändert bleiben
+     */
+    static Mirror[] symmetries(Board board, Dim start) {
+        return Arrays.stream(values()).filter(mirror -> mirror.apply(start, board.size).equals(start)
+                && mirror.isSymmetric(board)).toArray(Mirror[]::new);
+    }
+
+    /**
+     * Spiegelungen aus mirrors mit paarweise verschiedenen Bildern von position,
+     * null wenn position nicht das Bild mit der kleinsten Feldnummer ist
+     */
+    static Mirror[] images(Mirror[] mirrors, Dim position, Dim size) {
+        List<Mirror> images = new ArrayList<>();
+        List<Dim> positions = new ArrayList<>();
+        for (Mirror mirror : mirrors) {
+            Dim image = mirror.apply(position, size);
+            if (image.linear(size) < position.linear(size)) {
+                return null;
+            }
+            if (!positions.contains(image)) {
+                positions.add(image);
+                images.add(mirror);
+            }
+        }
+        return images.toArray(Mirror[]::new);
+    }
+
+    boolean isSymmetric(Board board) {
+        for (int x = 0; x < board.size.x(); x++) {
+            for (int y = 0; y < board.size.y(); y++) {
+                Dim image = apply(new Dim(x, y), board.size);
+                if ((board.board[x][y] == -1) != (board.board[image.x()][image.y()] == -1)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,297 @@
+package knight.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Mehrere Suchstrategien gleichzeitig auf derselben Aufgabe, die Threads werden aufgeteilt. Die erste Strategie,
+ * die limit Lösungen liefert oder ihre Suche vollständig abschliesst, gewinnt, alle anderen werden gestoppt.
+ * Jede Strategie sammelt ihre Lösungen bis zum Ende, limit begrenzt also auch den Speicherbedarf.
+ * Die Einstellungen entsprechen denen der {@link Engine}, die Reihenfolge der Sprungziele legt die Strategie fest.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public final class Portfolio {
+    static final long RESTART_MOVES = 1 << 16;  // Züge des ersten Versuchs bei Neustarts, danach jeweils doppelt
+    static final long WATCH_MILLIS = 2;     // Intervall der Prüfung des Zugbudgets
+
+    /**
+     * Suchstrategie
+     */
+    public enum Strategy {
+        BACKTRACKING,   // feste Reihenfolge der Sprungziele
+        WARNSDORFF,     // {@link Engine.Order#WARNSDORFF}
+        RESTARTS        // {@link Engine.Order#RANDOM}, Neustart nach Zugbudget, Budget jeweils verdoppelt
+    }
+
+    private record Outcome(Strategy strategy, Engine engine, List<Board> solutions) {
+    }
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "portfolio-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Board board;
+    private final int threadCount;
+    private final List<Engine> engines = new ArrayList<>();
+    private Strategy[] strategies = Strategy.values();
+    private Engine.Representation representation = Engine.Representation.TABLE;
+    private Engine.Execution execution = Engine.Execution.POOL;
+    private Engine.Split split = Engine.Split.FIXED;
+    private Engine.Symmetry symmetry = Engine.Symmetry.NONE;
+    private boolean pruning;
+    private int connectivity;
+    private boolean closed;
+    private int cacheSize;
+    private long deadline;  // Ende des Zeitbudgets (ns), 0 = keines
+    private volatile Outcome outcome;
+    private volatile boolean stop;
+
+    public Portfolio(Board board, int threadCount) {
+        this.board = board;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Die ersten limit Lösungen der schnellsten Strategie, weniger wenn die Suche dieser Strategie vollständig ist
+     */
+    public Stream<Board> solve(int x, int y, int limit) {
+        return solve(x, y, limit, Duration.ZERO);
+    }
+
+    /**
+     * Wie {@link #solve(int, int, int)} innerhalb des Zeitbudgets timeout (0 = unbegrenzt) für alle Strategien
+     * zusammen, nach Ablauf gewinnt die erste Strategie mit ihren bis dahin gefundenen Lösungen
+     */
+    public Stream<Board> solve(int x, int y, int limit, Duration timeout) {
+        deadline = timeout.isZero() ? 0 : System.nanoTime() + timeout.toNanos();
+        CompletableFuture<Outcome> first = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(strategies.length);
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        for (Strategy strategy : strategies) {
+            Thread thread = new Thread(() -> {
+                try {
+                    Outcome outcome = run(strategy, x, y, limit);
+                    if (outcome != null) {
+                        first.complete(outcome);
+                    }
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    if (running.decrementAndGet() == 0) {
+                        if (error.get() != null) {
+                            first.completeExceptionally(error.get());
+                        }
+                        first.complete(new Outcome(null, null, List.of()));   // alle gestoppt
+                    }
+                }
+            }, "portfolio-" + strategy.name().toLowerCase());
+            thread.setDaemon(true);
+            thread.start();
+        }
+        try {
+            outcome = first.join();
+            return outcome.solutions().stream();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            stop();
+        }
+    }
+
+    /**
+     * Ergebnis einer Strategie, null wenn sie gestoppt wurde
+     */
+    private Outcome run(Strategy strategy, int x, int y, int limit) {
+        for (long budget = RESTART_MOVES; !stop; budget *= 2) {
+            Engine engine = engine(strategy);
+            ScheduledFuture<?> watch = null;
+            if (strategy == Strategy.RESTARTS) {
+                long moves = budget;
+                watch = WATCHDOG.scheduleAtFixedRate(() -> {
+                    if (engine.moves() > moves) engine.stop();
+                }, WATCH_MILLIS, WATCH_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            List<Board> solutions;
+            Duration timeout = deadline == 0 ? Duration.ZERO : Duration.ofNanos(Math.max(1, deadline - System.nanoTime()));
+            try (Stream<Board> stream = engine.solve(x, y, limit, timeout)) {
+                solutions = stream.toList();
+            } finally {
+                if (watch != null) watch.cancel(false);
+            }
+            if (engine.errors() > 0) {
+                throw new IllegalStateException("Search of strategy " + strategy + " failed");
+            }
+            if (stop) {
+                return null;
+            }
+            if (strategy != Strategy.RESTARTS || engine.result().status() != Engine.Status.CANCELLED) {
+                return new Outcome(strategy, engine, solutions);
+            }
+        }
+        return null;
+    }
+
+    private synchronized Engine engine(Strategy strategy) {
+        // eigene Kopie je Engine, mit {@link Engine.Representation#ARRAY} wird das Brett während der Suche verändert
+        Engine engine = new Engine(board.copy(), Math.max(1, threadCount / strategies.length));
+        engine.setRepresentation(representation);
+        engine.setExecution(execution);
+        engine.setSplit(split);
+        engine.setSymmetry(symmetry);
+        engine.setPruning(pruning);
+        engine.setConnectivity(connectivity);
+        engine.setClosed(closed);
+        engine.setCacheSize(cacheSize);
+        engine.setOrder(switch (strategy) {
+            case BACKTRACKING -> Engine.Order.FIXED;
+            case WARNSDORFF -> Engine.Order.WARNSDORFF;
+            case RESTARTS -> Engine.Order.RANDOM;
+        });
+        if (stop) {
+            engine.stop();
+        }
+        engines.add(engine);
+        return engine;
+    }
+
+    /**
+     * Stoppt alle Strategien
+     */
+    public synchronized void stop() {
+        stop = true;
+        engines.forEach(Engine::stop);
+    }
+
+    /**
+     * Strategie der gelieferten Lösungen, null solange keine gewonnen hat
+     */
+    public Strategy winner() {
+        return outcome == null ? null : outcome.strategy();
+    }
+
+    /**
+     * Anzahl Lösungen der gewinnenden Strategie, mit {@link Engine.Symmetry#REDUCE} hochgerechnet
+     */
+    public long solutions() {
+        return outcome == null || outcome.engine() == null ? 0 : outcome.engine().solutions();
+    }
+
+    /**
+     * Stand der Suche der gewinnenden Strategie, {@link Engine.Status#CANCELLED} wenn alle gestoppt wurden
+     */
+    public Engine.Status status() {
+        if (outcome == null) {
+            return Engine.Status.RUNNING;
+        }
+        return outcome.engine() == null ? Engine.Status.CANCELLED : outcome.engine().result().status();
+    }
+
+    /**
+     * Züge aller Strategien
+     */
+    public synchronized long moves() {
+        return engines.stream().mapToLong(Engine::moves).sum();
+    }
+
+    /**
+     * Abfragen der Transpositionstabellen aller Strategien
+     */
+    public synchronized long cacheLookups() {
+        return engines.stream().mapToLong(Engine::cacheLookups).sum();
+    }
+
+    /**
+     * Treffer der Transpositionstabellen aller Strategien
+     */
+    public synchronized long cacheHits() {
+        return engines.stream().mapToLong(Engine::cacheHits).sum();
+    }
+
+    public Strategy[] getStrategies() {
+        return strategies;
+    }
+
+    public void setStrategies(Strategy... strategies) {
+        this.strategies = strategies;
+    }
+
+    public Engine.Representation getRepresentation() {
+        return representation;
+    }
+
+    public void setRepresentation(Engine.Representation representation) {
+        this.representation = representation;
+    }
+
+    public Engine.Execution getExecution() {
+        return execution;
+    }
+
+    public void setExecution(Engine.Execution execution) {
+        this.execution = execution;
+    }
+
+    public Engine.Split getSplit() {
+        return split;
+    }
+
+    public void setSplit(Engine.Split split) {
+        this.split = split;
+    }
+
+    public Engine.Symmetry getSymmetry() {
+        return symmetry;
+    }
+
+    public void setSymmetry(Engine.Symmetry symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    public boolean isPruning() {
+        return pruning;
+    }
+
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    public int getConnectivity() {
+        return connectivity;
+    }
+
+    public void setConnectivity(int interval) {
+        this.connectivity = interval;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void setClosed(boolean closed) {
+        this.closed = closed;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Transpositionstabelle je Strategie, siehe {@link Engine#setCacheSize(int)}
+     */
+    public void setCacheSize(int entries) {
+        this.cacheSize = entries;
+    }
+}
@@ -0,0 +1,158 @@
+package knight.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Verteilte Suche über mehrere Prozesse: jeder Prozess durchsucht mit {@link Engine#setShard(int, int)} einen
+ * Anteil der Teilbäume und schreibt seine Ergebnisdatei (Format siehe {@link Checkpoint}), {@link #merge(List)}
+ * fasst die Dateien aller Anteile zu exakten Summen zusammen.
+ * <p>
+ * Aufruf: {@code run <Brett> <x> <y> <Anteil> <Anzahl> <Datei> [depth=n] [blacks=NAME|x,y:x,y] [tours]} oder
+ * {@code merge <Datei>...}. depth ist die Zugtiefe der aufgeteilten Teilbäume ({@link Engine#setPrefixDepth(int)}),
+ * blacks eine Vorgabe aus {@link Blacks} oder gesperrte Felder. Mit tours werden die Lösungen des Anteils
+ * zusätzlich als {@link TourStore} in Datei.tours abgelegt.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public final class Shards {
+    private static final Pattern SHARD = Pattern.compile(" shard=(\\d+)/(\\d+)$");
+
+    /**
+     * Summen einer verteilten Suche
+     */
+    public record Totals(long moves, long solutions) {
+        public String toString() {
+            return String.format("Lösungen: %d, Züge: %d", solutions, moves);
+        }
+    }
+
+    private Shards() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        switch (args.length > 0 ? args[0] : "") {
+            case "run" -> {
+                String[] size = args[1].split("x");
+                Dim dim = new Dim(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+                Dim[] blacks = {};
+                int depth = 0;
+                boolean storing = false;
+                for (String option : Arrays.asList(args).subList(7, args.length)) {
+                    if (option.startsWith("depth=")) {
+                        depth = Integer.parseInt(option.substring(6));
+                    } else if (option.startsWith("blacks=")) {
+                        blacks = blacks(option.substring(7));
+                    } else if (option.equals("tours")) {
+                        storing = true;
+                    } else {
+                        throw new IllegalArgumentException("Invalid option: " + option);
+                    }
+                }
+                Board board = new Board(dim, blacks);
+                Engine engine = new Engine(board, Runtime.getRuntime().availableProcessors());
+                engine.setShard(Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+                engine.setPrefixDepth(depth);
+                Path file = Path.of(args[6]);
+                engine.setCheckpoint(file);
+                int x = Integer.parseInt(args[2]), y = Integer.parseInt(args[3]);
+                if (storing) {
+                    try (TourStore tours = TourStore.create(Path.of(args[6] + ".tours"), board)) {
+                        engine.solve(x, y).map(Tour.encoder(board)).forEach(tours::add);
+                        tours.seal();
+                    }
+                } else {
+                    engine.count(x, y);
+                }
+                System.out.printf("Anteil %s/%s: Lösungen: %d, Züge: %d%n", args[4], args[5], engine.solutions(), engine.moves());
+            }
+            case "merge" -> System.out.println(merge(Arrays.stream(args, 1, args.length).map(Path::of).toList()));
+            default -> System.err.println("Usage: Shards run <BxH> <x> <y> <index> <count> <file> [depth=n]"
+                    + " [blacks=NAME|x,y:x,y] [tours] | Shards merge <file>...");
+        }
+    }
+
+    /**
+     * Vorgabe aus {@link Blacks} nach Name oder gesperrte Felder im Format x,y:x,y
+     */
+    private static Dim[] blacks(String value) {
+        Dim[] preset = Layouts.presets().get(value);
+        if (preset != null) {
+            return preset;
+        }
+        return Arrays.stream(value.split(":")).map(square -> square.split(","))
+                .map(xy -> new Dim(Integer.parseInt(xy[0].trim()), Integer.parseInt(xy[1].trim()))).toArray(Dim[]::new);
+    }
+
+    /**
+     * Summen aus den Ergebnisdateien aller Anteile einer Suche. Jeder Anteil muss genau einmal vorhanden und
+     * abgeschlossen sein, alle Dateien müssen dieselbe Suche beschreiben, dieselben Zähler oberhalb der Teilbäume
+     * haben und nur Teilbäume ihres eigenen Anteils enthalten.
+     */
+    public static Totals merge(List<Path> files) throws IOException {
+        String search = null;
+        boolean[] shards = null;
+        Map<String, Long> moves = new HashMap<>();
+        Map<String, Long> solutions = new HashMap<>();
+        long[] root = null;   // Züge und Lösungen oberhalb der Teilbäume
+        for (Path file : files) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+            if (lines.isEmpty()) {
+                throw new IllegalStateException("Empty result file " + file);
+            }
+            Matcher matcher = SHARD.matcher(lines.get(0));
+            boolean sharded = matcher.find();
+            String header = sharded ? lines.get(0).substring(0, matcher.start()) : lines.get(0);
+            int index = sharded ? Integer.parseInt(matcher.group(1)) : 0;
+            int count = sharded ? Integer.parseInt(matcher.group(2)) : 1;
+            if (search == null) {
+                search = header;
+                shards = new boolean[count];
+            } else if (!search.equals(header) || shards.length != count) {
+                throw new IllegalStateException("Result file " + file + " belongs to a different search");
+            }
+            boolean finished = false;
+            for (String line : lines.subList(1, lines.size())) {
+                String[] fields = line.split(" ");
+                if (fields.length != 3) continue;
+                if (fields[0].equals(Checkpoint.ROOT)) {
+                    finished = true;
+                    long[] counts = {Long.parseLong(fields[1]), Long.parseLong(fields[2])};
+                    if (root != null && !Arrays.equals(root, counts)) {
+                        throw new IllegalStateException("Root counters in " + file + " differ from other shards");
+                    }
+                    root = counts;
+                } else {
+                    if (Math.floorMod(fields[0].hashCode(), count) != index) {
+                        throw new IllegalStateException("Subtree " + fields[0] + " in " + file
+                                + " does not belong to shard " + index + "/" + count);
+                    }
+                    moves.put(fields[0], Long.parseLong(fields[1]));
+                    solutions.put(fields[0], Long.parseLong(fields[2]));
+                }
+            }
+            if (!finished) {
+                throw new IllegalStateException("Shard " + index + "/" + count + " in " + file + " is not finished");
+            }
+            if (index >= count || shards[index]) {
+                throw new IllegalStateException("Duplicate or invalid shard " + index + "/" + count + " in " + file);
+            }
+            shards[index] = true;
+        }
+        for (int i = 0; shards != null && i < shards.length; i++) {
+            if (!shards[i]) {
+                throw new IllegalStateException("Missing result file of shard " + i + "/" + shards.length);
+            }
+        }
+        return new Totals((root == null ? 0 : root[0]) + moves.values().stream().mapToLong(Long::longValue).sum(),
+                (root == null ? 0 : root[1]) + solutions.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
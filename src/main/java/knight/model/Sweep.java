@@ -0,0 +1,173 @@
+package knight.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Anzahl Lösungen für jedes freie Startfeld eines Bretts. Alle Startfelder werden gleichzeitig im selben
+ * {@link ForkJoinPool} durchsucht, von Startfeldern, die durch eine Spiegelung der gesperrten Felder
+ * ({@link Mirror}) ineinander übergehen, nur das mit der kleinsten Feldnummer.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public final class Sweep {
+    private final Board board;  // nur gesperrte Felder
+    private final int threadCount;
+    private final List<Engine> engines = new ArrayList<>();
+    private Engine.Representation representation = Engine.Representation.TABLE;
+    private boolean pruning;
+    private int connectivity;
+    private ForkJoinPool pool;  // geteilter Pool, null = eigener Pool je Sweep
+    private volatile boolean stop;
+
+    /**
+     * Sweep über die gesperrten Felder von board, spätere Änderungen an board wirken nicht
+     */
+    public Sweep(Board board, int threadCount) {
+        this.board = Tour.layout(board);
+        this.threadCount = threadCount;
+    }
+
+    public static void main(String[] args) {
+        Sweep sweep = new Sweep(new Board(new Dim(5, 5)), Engine.DEFAULT_THREAD_COUNT);
+        long[][] counts = sweep.run();
+        for (int y = 0; y < counts[0].length; y++) {
+            for (long[] column : counts) {
+                System.out.printf("%8d", column[y]);
+            }
+            System.out.println();
+        }
+        System.out.printf("Züge: %d%n", sweep.moves());
+    }
+
+    /**
+     * Anzahl Lösungen je Startfeld [x][y], -1 für gesperrte Felder. Nach {@link #stop()} wird statt
+     * unvollständiger Zahlen eine {@link CancellationException} geworfen.
+     */
+    public long[][] run() {
+        Dim size = board.size;
+        Mirror[] mirrors = Arrays.stream(Mirror.values()).filter(mirror -> mirror.isSymmetric(board))
+                .toArray(Mirror[]::new);
+        ForkJoinPool pool = this.pool != null ? this.pool : new ForkJoinPool(threadCount);
+        ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Dim> starts = new ArrayList<>();
+        List<Engine> searches = new ArrayList<>();
+        List<CompletableFuture<Long>> counts = new ArrayList<>();
+        try {
+            for (int y = 0; y < size.y(); y++) {
+                for (int x = 0; x < size.x(); x++) {
+                    Dim start = new Dim(x, y);
+                    if (board.board[x][y] == -1 || Mirror.images(mirrors, start, size) == null) {
+                        continue;
+                    }
+                    Engine engine = engine(pool);
+                    starts.add(start);
+                    searches.add(engine);
+                    counts.add(CompletableFuture.supplyAsync(() -> engine.count(start.x(), start.y()), threads));
+                }
+            }
+            long[][] result = new long[size.x()][size.y()];
+            for (long[] column : result) {
+                Arrays.fill(column, -1);
+            }
+            for (int i = 0; i < starts.size(); i++) {
+                long count = counts.get(i).join();
+                if (searches.get(i).errors() > 0) {
+                    throw new IllegalStateException("Search of start square " + starts.get(i).x() + ","
+                            + starts.get(i).y() + " failed");
+                }
+                for (Mirror mirror : mirrors) {
+                    Dim image = mirror.apply(starts.get(i), size);
+                    result[image.x()][image.y()] = count;
+                }
+            }
+            if (stop) {
+                throw new CancellationException("Sweep stopped");
+            }
+            return result;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            threads.shutdown();
+            if (pool != this.pool) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private synchronized Engine engine(ForkJoinPool pool) {
+        Engine engine = new Engine(board, threadCount);
+        engine.setRepresentation(representation);
+        engine.setPruning(pruning);
+        engine.setConnectivity(connectivity);
+        engine.setSymmetry(Engine.Symmetry.REDUCE);
+        engine.setPool(pool);
+        if (stop) {
+            engine.stop();
+        }
+        engines.add(engine);
+        return engine;
+    }
+
+    /**
+     * Züge aller Suchen
+     */
+    public synchronized long moves() {
+        return engines.stream().mapToLong(Engine::moves).sum();
+    }
+
+    public synchronized int errors() {
+        return engines.stream().mapToInt(Engine::errors).sum();
+    }
+
+    public synchronized void stop() {
+        stop = true;
+        engines.forEach(Engine::stop);
+    }
+
+    void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Engine.Representation getRepresentation() {
+        return representation;
+    }
+
+    /**
+     * Nur {@link Engine.Representation#TABLE} und {@link Engine.Representation#BITBOARD}, alle Suchen teilen
+     * sich das Brett
+     */
+    public void setRepresentation(Engine.Representation representation) {
+        if (representation == Engine.Representation.ARRAY) {
+            throw new IllegalArgumentException("Sweep requires TABLE or BITBOARD representation");
+        }
+        this.representation = representation;
+    }
+
+    public boolean isPruning() {
+        return pruning;
+    }
+
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    public int getConnectivity() {
+        return connectivity;
+    }
+
+    public void setConnectivity(int interval) {
+        this.connectivity = interval;
+    }
+}
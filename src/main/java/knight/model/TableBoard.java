@@ -0,0 +1,116 @@
+package knight.model;
+
+/**
+ * Spielfeld auf Basis der Adjazenztabelle eines {@link Graph}: Sprungziele sind Knoten,
+ * zulässige Sprünge werden ohne Bereichsprüfung direkt aus der Nachbartabelle gelesen.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+class TableBoard extends Walk {
+    private final Graph graph;
+    private final boolean[] visited;    // besuchte Knoten
+    private final Degrees degrees;      // Restgrade, null ohne Abschneiden
+    private final int[] path;           // Knoten je Spielzug
+    int node;   // aktueller Knoten
+
+    TableBoard(Graph graph, Degrees degrees) {
+        super(graph.nodes);
+        this.graph = graph;
+        this.degrees = degrees;
+        this.visited = new boolean[graph.nodes];
+        this.path = new int[graph.nodes + 1];
+    }
+
+    private TableBoard(TableBoard copy) {
+        super(copy);
+        this.graph = copy.graph;
+        this.degrees = copy.degrees == null ? null : new Degrees(copy.degrees);
+        this.visited = copy.visited.clone();
+        this.path = copy.path.clone();
+        this.node = copy.node;
+    }
+
+    @Override
+    void start(int x, int y) {
+        move(graph.node(x, y));
+    }
+
+    @Override
+    int targets(int[] targets) {
+        int n = 0;
+        int[] neighbours = graph.neighbours;
+        for (int i = node * Graph.DEGREE, end = i + graph.degree[node]; i < end; i++) {
+            if (!visited[neighbours[i]]) {
+                targets[n++] = neighbours[i];
+            }
+        }
+        return n;
+    }
+
+    @Override
+    void move(int target) {
+        visited[target] = true;
+        node = target;
+        path[++step] = target;
+        count++;
+        if (degrees != null) {
+            degrees.visit(target);
+        }
+    }
+
+    @Override
+    void undo(int target) {
+        visited[target] = false;
+        node = path[--step];
+        if (degrees != null) {
+            degrees.leave(target);
+        }
+    }
+
+    @Override
+    Dim position(int target) {
+        return graph.position(target);
+    }
+
+    @Override
+    int degree(int target) {
+        int n = 0;
+        for (int i = target * Graph.DEGREE, end = i + graph.degree[target]; i < end; i++) {
+            if (!visited[graph.neighbours[i]]) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    boolean isSolved() {
+        return step == graph.nodes && (!closed || node > path[2] && graph.isNeighbour(path[1], node));
+    }
+
+    @Override
+    boolean isDead() {
+        return closed && step >= 2 && !isClosable() || degrees != null && degrees.isDead(node, step);
+    }
+
+    /**
+     * Ist noch ein Nachbar des Startfelds frei, der nach dem ersten Sprungziel nummeriert ist.
+     * Jeder Zyklus wird so nur in einer Richtung gezählt.
+     */
+    private boolean isClosable() {
+        for (int i = path[1] * Graph.DEGREE, end = i + graph.degree[path[1]]; i < end; i++) {
+            if (!visited[graph.neighbours[i]] && graph.neighbours[i] > path[2]) return true;
+        }
+        return false;
+    }
+
+    @Override
+    TableBoard copy() {
+        return new TableBoard(this);
+    }
+
+    @Override
+    Board toBoard() {
+        return graph.board(path, step);
+    }
+}
@@ -0,0 +1,24 @@
+package knight.model;
+
+import java.util.Arrays;
+
+/**
+ * Anzahl und Grösse (Züge) der parallel bearbeiteten Teilbäume einer Suche
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public record TaskStatistics(int tasks, long min, long median, long max) {
+
+    static TaskStatistics of(long[] sizes) {
+        if (sizes.length == 0) {
+            return new TaskStatistics(0, 0, 0, 0);
+        }
+        long[] sorted = sizes.clone();
+        Arrays.sort(sorted);
+        return new TaskStatistics(sorted.length, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+
+    public String toString() {
+        return String.format("Tasks: %d, Grösse min/median/max: %d/%d/%d", tasks, min, median, max);
+    }
+}
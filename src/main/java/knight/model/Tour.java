@@ -0,0 +1,101 @@
+package knight.model;
+
+import java.util.function.Function;
+
+/**
+ * Platzsparend gespeicherte Lösung: Startfeld und Zugfolge als 3 Bit Index in {@link Board#MOVES} je Sprung,
+ * 21 Sprünge je long. Das darstellbare {@link Board} wird erst bei Bedarf erzeugt.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public final class Tour {
+    private static final int BITS = 3;
+    private static final int PER_LONG = Long.SIZE / BITS;
+    private static final int[] MOVE_INDEX = new int[25];  // Zugindex je Vektor (x+2)*5 + (y+2)
+
+    static {
+        for (int i = 0; i < Board.MOVES.length; i++) {
+            MOVE_INDEX[(Board.MOVES[i].x() + 2) * 5 + Board.MOVES[i].y() + 2] = i;
+        }
+    }
+
+    private final Board layout;     // leeres Brett mit gesperrten Feldern, von allen Touren einer Suche geteilt
+    final int start;        // Startfeld nach {@link Dim#linear(Dim)}
+    final int steps;        // Anzahl Spielzüge
+    final long[] moves;     // Zugindizes
+
+    Tour(Board layout, int start, int steps, long[] moves) {
+        this.layout = layout;
+        this.start = start;
+        this.steps = steps;
+        this.moves = moves;
+    }
+
+    /**
+     * Kodierung von Lösungen auf dem Brett layout, gesperrte Felder werden nur einmal gehalten
+     */
+    public static Function<Board, Tour> encoder(Board layout) {
+        Board blacks = layout(layout);
+        return board -> of(board, blacks);
+    }
+
+    /**
+     * Leeres Brett mit den gesperrten Feldern von board
+     */
+    static Board layout(Board board) {
+        Board layout = new Board(board.size);
+        for (int x = 0; x < board.size.x(); x++) {
+            for (int y = 0; y < board.size.y(); y++) {
+                if (board.board[x][y] == -1) {
+                    layout.toggleBlack(x, y);
+                }
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Anzahl long für die Zugindizes einer Tour mit steps Spielzügen
+     */
+    static int words(int steps) {
+        return (steps + PER_LONG - 2) / PER_LONG;
+    }
+
+    static Tour of(Board board, Board layout) {
+        Dim[] positions = new Dim[board.step + 1];
+        for (int x = 0; x < board.size.x(); x++) {
+            for (int y = 0; y < board.size.y(); y++) {
+                if (board.board[x][y] > 0) {
+                    positions[board.board[x][y]] = new Dim(x, y);
+                }
+            }
+        }
+        long[] moves = new long[words(board.step)];
+        for (int step = 1; step < board.step; step++) {
+            int index = MOVE_INDEX[(positions[step + 1].x() - positions[step].x() + 2) * 5
+                    + positions[step + 1].y() - positions[step].y() + 2];
+            moves[(step - 1) / PER_LONG] |= (long) index << BITS * ((step - 1) % PER_LONG);
+        }
+        return new Tour(layout, positions[1].linear(board.size), board.step, moves);
+    }
+
+    public Board board() {
+        Board board = new Board(layout);
+        int x = start % layout.size.x(), y = start / layout.size.x();
+        board.board[x][y] = 1;
+        for (int step = 1; step < steps; step++) {
+            Dim move = Board.MOVES[(int) (moves[(step - 1) / PER_LONG] >>> BITS * ((step - 1) % PER_LONG)) & 7];
+            x += move.x();
+            y += move.y();
+            board.board[x][y] = step + 1;
+        }
+        board.x = x;
+        board.y = y;
+        board.step = steps;
+        return board;
+    }
+
+    public int steps() {
+        return steps;
+    }
+}
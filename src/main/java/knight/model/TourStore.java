@@ -0,0 +1,216 @@
+package knight.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Objects;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Lösungsspeicher in einer Datei: {@link Tour}en werden während der Suche als Datensätze fester Länge
+ * angehängt und nach {@link #seal()} über speicherabgebildete Abschnitte wahlfrei gelesen.
+ * Der Heap-Bedarf hängt nicht von der Anzahl Touren ab.
+ * <p>
+ * Aufbau: Kopf mit Kennung, Brettgrösse, Spielzügen, Anzahl Touren und gesperrten Feldern als Bitmaske,
+ * danach je Tour Startfeld (int) und Zugindizes (long).
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+public final class TourStore extends AbstractList<Tour> implements Closeable {
+    private static final int MAGIC = 0x4b545331;    // "KTS1"
+    private static final int COUNT_OFFSET = 16;
+    private static final int MASK_OFFSET = 24;
+    private static final int CHUNK = 1 << 30;       // max. Bytes je abgebildetem Abschnitt
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Board layout;
+    private final int steps;
+    private final int header;       // Länge Kopf (Bytes)
+    private final int record;       // Länge Datensatz (Bytes)
+    private final int perChunk;     // Datensätze je Abschnitt
+    private ByteBuffer buffer;      // Schreibpuffer, null nach seal()
+    private MappedByteBuffer[] chunks;
+    private int size;
+    private boolean temporary;      // Datei wird beim Schliessen gelöscht
+
+    private TourStore(Path file, FileChannel channel, Board layout, int size) {
+        this.file = file;
+        this.channel = channel;
+        this.layout = layout;
+        this.steps = layout.size.area() - layout.blacks;
+        this.header = MASK_OFFSET + (layout.size.area() + 7) / 8;
+        this.record = Integer.BYTES + Long.BYTES * Tour.words(steps);
+        this.perChunk = CHUNK / record;
+        this.size = size;
+    }
+
+    /**
+     * Neuer, leerer Speicher für Lösungen auf dem Brett layout
+     */
+    public static TourStore create(Path file, Board layout) throws IOException {
+        TourStore store = new TourStore(file, FileChannel.open(file, CREATE, TRUNCATE_EXISTING, READ, WRITE),
+                Tour.layout(layout), 0);
+        store.buffer = ByteBuffer.allocateDirect(1 << 16);
+        store.channel.position(store.header);
+        return store;
+    }
+
+    /**
+     * Neuer, leerer Speicher in einer temporären Datei, die mit {@link #close()} gelöscht wird
+     */
+    public static TourStore temporary(Board layout) throws IOException {
+        Path file = Files.createTempFile("knight", ".tours");
+        file.toFile().deleteOnExit();
+        try {
+            TourStore store = create(file, layout);
+            store.temporary = true;
+            return store;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Öffnet einen gespeicherten Speicher, gelesen wird nur der Kopf
+     */
+    public static TourStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, READ);
+        try {
+            ByteBuffer head = ByteBuffer.allocate(MASK_OFFSET);
+            channel.read(head, 0);
+            if (head.getInt(0) != MAGIC) {
+                throw new IOException("Keine Lösungsdatei: " + file);
+            }
+            Board layout = new Board(new Dim(head.getInt(4), head.getInt(8)));
+            ByteBuffer mask = ByteBuffer.allocate((layout.size.area() + 7) / 8);
+            channel.read(mask, MASK_OFFSET);
+            for (int i = 0; i < layout.size.area(); i++) {
+                if ((mask.get(i / 8) & 1 << i % 8) != 0) {
+                    layout.toggleBlack(i % layout.size.x(), i / layout.size.x());
+                }
+            }
+            TourStore store = new TourStore(file, channel, layout, (int) head.getLong(COUNT_OFFSET));
+            store.chunks = new MappedByteBuffer[(store.size + store.perChunk - 1) / store.perChunk];
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Hängt tour an, nur vor {@link #seal()}
+     */
+    @Override
+    public synchronized boolean add(Tour tour) {
+        if (buffer == null) {
+            throw new IllegalStateException("Lösungsspeicher ist abgeschlossen");
+        }
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Lösungsspeicher ist voll");
+        }
+        if (buffer.remaining() < record) {
+            flush();
+        }
+        buffer.putInt(tour.start);
+        for (long moves : tour.moves) {
+            buffer.putLong(moves);
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Schreibt Puffer und Kopf, danach sind die Touren lesbar
+     */
+    public synchronized void seal() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        flush();
+        buffer = null;
+        ByteBuffer head = ByteBuffer.allocate(header);
+        head.putInt(MAGIC).putInt(layout.size.x()).putInt(layout.size.y()).putInt(steps).putLong(size);
+        for (int x = 0; x < layout.size.x(); x++) {
+            for (int y = 0; y < layout.size.y(); y++) {
+                if (layout.board[x][y] == -1) {
+                    int i = new Dim(x, y).linear(layout.size);
+                    head.put(MASK_OFFSET + i / 8, (byte) (head.get(MASK_OFFSET + i / 8) | 1 << i % 8));
+                }
+            }
+        }
+        channel.write(head.clear(), 0);
+        channel.force(false);
+        chunks = new MappedByteBuffer[(size + perChunk - 1) / perChunk];
+    }
+
+    private void flush() {
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Tour get(int index) {
+        Objects.checkIndex(index, size);
+        MappedByteBuffer chunk = chunk(index / perChunk);
+        int offset = index % perChunk * record;
+        long[] moves = new long[Tour.words(steps)];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = chunk.getLong(offset + Integer.BYTES + i * Long.BYTES);
+        }
+        return new Tour(layout, chunk.getInt(offset), steps, moves);
+    }
+
+    private synchronized MappedByteBuffer chunk(int i) {
+        if (chunks == null) {
+            throw new IllegalStateException("Lösungsspeicher ist nicht abgeschlossen");
+        }
+        if (chunks[i] == null) {
+            long records = Math.min(perChunk, size - (long) i * perChunk);
+            try {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, header + (long) i * perChunk * record,
+                        records * record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return chunks[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public Dim getSize() {
+        return layout.size;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (temporary) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
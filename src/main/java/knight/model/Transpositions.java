@@ -0,0 +1,72 @@
+package knight.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transpositionstabelle für {@link BitBoard}: Anzahl Vervollständigungen je Zustand (aktueller Knoten,
+ * besuchte Knoten), von allen Threads ohne Sperren geteilt.
+ * <p>
+ * Schlüssel und Wert werden XOR-verknüpft abgelegt, ein durch gleichzeitiges Schreiben zerrissener Eintrag
+ * wird so als Fehlschlag erkannt. Bei Kollision ersetzt der neue Eintrag den alten.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+final class Transpositions {
+    static final int MAX_ENTRIES = 1 << 29;     // 2^30 long, grösstes Java-Array mit Zweierpotenz-Länge
+    private static final int NODE_BITS = 6;
+    private static final long NODE_MASK = (1 << NODE_BITS) - 1;
+
+    private final long[] table;     // je Eintrag: besuchte Knoten ^ Wert, Wert = Vervollständigungen << 6 | Knoten
+    private final int shift;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Tabelle mit entries Einträgen, abgerundet auf eine Zweierpotenz, höchstens MAX_ENTRIES
+     */
+    Transpositions(int entries) {
+        if (entries < 1 || entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Cache size " + entries + " not in 1.." + MAX_ENTRIES);
+        }
+        int bits = 31 - Integer.numberOfLeadingZeros(Math.max(entries, 2));
+        this.table = new long[2 << bits];
+        this.shift = Long.SIZE - bits;
+    }
+
+    /**
+     * Gespeicherte Anzahl Vervollständigungen, -1 wenn der Zustand nicht in der Tabelle ist
+     */
+    long get(long visited, int node) {
+        lookups.increment();
+        int i = index(visited, node);
+        long value = table[i + 1];
+        if ((table[i] ^ value) == visited && (value & NODE_MASK) == node) {
+            hits.increment();
+            return value >>> NODE_BITS;
+        }
+        return -1;
+    }
+
+    void put(long visited, int node, long completions) {
+        int i = index(visited, node);
+        long value = completions << NODE_BITS | node;
+        table[i] = visited ^ value;
+        table[i + 1] = value;
+    }
+
+    private int index(long visited, int node) {
+        return (int) ((visited + node) * 0x9E3779B97F4A7C15L >>> shift) << 1;
+    }
+
+    int size() {
+        return table.length / 2;
+    }
+
+    long lookups() {
+        return lookups.sum();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+}
@@ -0,0 +1,127 @@
+package knight.model;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Suchzustand des Backtracking: besuchte Felder, aktuelle Position und Zugfolge des Springers.
+ * <p>
+ * Sprungziele werden als int kodiert, die Bedeutung (Zugindex, Feldnummer) ist Sache der Implementierung.
+ *
+ * @author matthias.baumgartner@gmx.net
+ */
+abstract class Walk {
+    final int depth;    // maximale Anzahl Spielzüge
+    private int[][] buffer; // Puffer für Sprungziele je Zugtiefe, erst bei der Suche angelegt
+    int step;   // Spielzug
+    long count; // Gesamtzahl Züge auf diesem Brett
+    long published; // davon bereits an den Zugzähler des Threads übergeben
+    long solutions; // gefundene Lösungen gewichtet mit den Bildern ihres ersten Zugs, beim Zählen ohne Board
+    long tours;     // gefundene Lösungen ohne Gewichtung durch Spiegelbilder
+    Mirror[] images = {Mirror.NONE};    // Spiegelungen, deren Bilder einer Lösung ebenfalls Lösungen sind
+    boolean closed; // nur geschlossene Touren, letztes Feld ist Nachbar des Startfelds
+    int[] prefix;   // Felder (linear) der ersten Spielzüge bis zur Tiefe der Checkpoint-Teilbäume, sonst null
+    List<Board> batch;  // noch nicht übergebene Lösungen dieses Teilbaums
+    long batchTime;     // Zeitpunkt (ns) der ersten Lösung in batch
+
+    Walk(int depth) {
+        this.depth = depth;
+    }
+
+    Walk(Walk copy) {
+        this(copy.depth);
+        this.step = copy.step;
+        this.images = copy.images;
+        this.closed = copy.closed;
+        this.prefix = copy.prefix == null ? null : copy.prefix.clone();
+    }
+
+    /**
+     * Puffer für die Sprungziele ab Spielzug step
+     */
+    int[] buffer(int step) {
+        if (buffer == null) {
+            buffer = new int[depth + 1][Board.MOVES.length];
+        }
+        return buffer[step];
+    }
+
+    /**
+     * Setzt den Springer auf das Startfeld (x,y)
+     */
+    abstract void start(int x, int y);
+
+    /**
+     * Schreibt die zulässigen Sprungziele ab dem aktuellen Feld in targets, liefert deren Anzahl
+     */
+    abstract int targets(int[] targets);
+
+    /**
+     * Sprung auf Ziel target
+     */
+    abstract void move(int target);
+
+    /**
+     * Macht den Sprung auf Ziel target rückgängig
+     */
+    abstract void undo(int target);
+
+    /**
+     * Feld des Sprungziels target
+     */
+    abstract Dim position(int target);
+
+    /**
+     * Anzahl weiterer Sprungziele ab Ziel target
+     */
+    abstract int degree(int target);
+
+    abstract boolean isSolved();
+
+    /**
+     * Ist ab dem aktuellen Zustand sicher keine Lösung mehr möglich
+     */
+    boolean isDead() {
+        return false;
+    }
+
+    /**
+     * Kopie für parallele Bearbeitung eines Teilbaums
+     */
+    abstract Walk copy();
+
+    /**
+     * Aktueller Zustand als darstellbares {@link Board}
+     */
+    abstract Board toBoard();
+
+    /**
+     * Sortiert Sprungziele nach Warnsdorff: wenigste weitere Sprungziele zuerst, bei Gleichstand kleineres Ziel
+     */
+    void warnsdorff(int[] targets, int n) {
+        for (int i = 0; i < n; i++) {
+            targets[i] |= degree(targets[i]) << 24;
+            for (int j = i; j > 0 && targets[j] < targets[j - 1]; j--) {
+                int target = targets[j];
+                targets[j] = targets[j - 1];
+                targets[j - 1] = target;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            targets[i] &= 0xFFFFFF;
+        }
+    }
+
+    /**
+     * Zufällige Reihenfolge der Sprungziele
+     */
+    void shuffle(int[] targets, int n) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int target = targets[i];
+            targets[i] = targets[j];
+            targets[j] = target;
+        }
+    }
+}
@@ -5,5 +5,8 @@ interface ActionListener {
     void onStart();
     void onStop();
     void onShow();
+    void onSweep();
+    void onOpen();
+    void onSave();
     void onQuit();
 }
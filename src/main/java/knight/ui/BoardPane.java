@@ -10,6 +10,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.io.IOException;
+import java.text.NumberFormat;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
@@ -24,12 +25,16 @@ import static knight.ui.Model.Mode.SET;
 
 class BoardPane extends JPanel {
     private static final Font FONT = new Font("DejaVu", Font.BOLD, 28);
+    private static final Font HEATMAP_FONT = new Font("DejaVu", Font.BOLD, 14);
+    private static final Color HEATMAP_COLD = new Color(255, 255, 224);
+    private static final Color HEATMAP_HOT = new Color(220, 40, 20);
 
     private final Model model;
 
     private final ImageIcon knightIcon;
     private final ImageIcon crossIcon;
 
+    private Font font = FONT;   // kleiner für grosse Bretter
     private final Map<Integer, JLabel> moveFieldMap = new HashMap<>();
     private final AtomicInteger playing = new AtomicInteger(0);
     private long lastUpdatedTicks = System.currentTimeMillis();
@@ -58,6 +63,8 @@ class BoardPane extends JPanel {
         for (int row = 0; row < model.getBoardSize().dim().y(); row++) {
             for (int col = 0; col < model.getBoardSize().dim().x(); col++) {
                 JLabel field = fieldIerator.next();
+                field.setOpaque(false);
+                field.setFont(font);
                 int move = moves[col][row];
                 if (move == -1) {
                     setIcon(field, crossIcon);
@@ -78,10 +85,39 @@ class BoardPane extends JPanel {
         }
     }
 
+    /**
+     * Anzahl Lösungen je Startfeld, Farbe logarithmisch zwischen keiner und der grössten Anzahl
+     */
+    void heatmap(long[][] counts) {
+        long max = Arrays.stream(counts).flatMapToLong(Arrays::stream).max().orElse(0);
+        NumberFormat format = NumberFormat.getCompactNumberInstance();
+        Iterator<JLabel> fieldIerator = Arrays.stream(getComponents()) //
+                .map(JLabel.class::cast).iterator();
+        for (int row = 0; row < counts[0].length; row++) {
+            for (long[] column : counts) {
+                JLabel field = fieldIerator.next();
+                long count = column[row];
+                if (count >= 0) {
+                    float heat = max > 0 ? (float) (Math.log1p(count) / Math.log1p(max)) : 0;
+                    field.setIcon(null);
+                    field.setFont(HEATMAP_FONT);
+                    field.setText(format.format(count));
+                    field.setBackground(new Color(
+                            (int) (HEATMAP_COLD.getRed() + heat * (HEATMAP_HOT.getRed() - HEATMAP_COLD.getRed())),
+                            (int) (HEATMAP_COLD.getGreen() + heat * (HEATMAP_HOT.getGreen() - HEATMAP_COLD.getGreen())),
+                            (int) (HEATMAP_COLD.getBlue() + heat * (HEATMAP_HOT.getBlue() - HEATMAP_COLD.getBlue()))));
+                    field.setOpaque(true);
+                }
+            }
+        }
+        repaint();
+    }
+
     private void resize(Model.BoardSize boardSize) {
         removeAll();
         moveFieldMap.clear();
         setLayout(new GridLayout(boardSize.dim().y(), boardSize.dim().x()));
+        font = FONT.deriveFont((float) Math.min(FONT.getSize(), 240 / Math.max(boardSize.dim().x(), boardSize.dim().y())));
 
         for (int row = 0; row < boardSize.dim().y(); row++) {
             for (int col = 0; col < boardSize.dim().x(); col++) {
@@ -89,7 +125,7 @@ class BoardPane extends JPanel {
                 label.setBorder(BorderFactory.createEtchedBorder(EtchedBorder.LOWERED));
                 label.addMouseListener(onClickField());
                 label.setHorizontalAlignment(JLabel.CENTER);
-                label.setFont(FONT);
+                label.setFont(font);
                 add(label);
             }
         }
@@ -1,6 +1,5 @@
 package knight.ui;
 
-import knight.model.Board;
 import knight.ui.Model.BoardSize;
 
 import javax.swing.*;
@@ -75,16 +74,16 @@ class ControlPane extends JPanel {
     }
 
     private void adjustBoard(AdjustmentEvent adjustment) {
-        Board board = model.getBoards().get(adjustment.getValue());
-        model.setBoard(board);
+        model.setTourIndex(adjustment.getValue());
+        model.setBoard(model.getTours().get(adjustment.getValue()).board());
     }
 
     private void mode(Model.Mode mode) {
         CardLayout layout = (CardLayout) getLayout();
         layout.show(this, mode.name());
-        if (mode == VIEW && model.getBoards().size() > 0) {
+        if (mode == VIEW && model.getTours().size() > 0) {
             solutionScrollbar.setEnabled(true);
-            solutionScrollbar.setModel(new DefaultBoundedRangeModel(0, 1, 0, model.getBoards().size()));
+            solutionScrollbar.setModel(new DefaultBoundedRangeModel(0, 1, 0, model.getTours().size()));
         } else {
             solutionScrollbar.setEnabled(false);
             solutionScrollbar.setModel(new DefaultBoundedRangeModel(0, 0, 0, 0));
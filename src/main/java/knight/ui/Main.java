@@ -1,14 +1,24 @@
 package knight.ui;
 
+import knight.cli.Runner;
 import knight.model.Board;
 import knight.model.Dim;
 import knight.model.Engine;
+import knight.model.Sweep;
+import knight.model.Tour;
+import knight.model.TourStore;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.toList;
 import static knight.ui.Model.Mode.*;
 
 public class Main {
@@ -19,6 +29,8 @@ public class Main {
 
     private Engine engine;
 
+    private Sweep sweep;
+
     public Main() {
         createFrame();
     }
@@ -71,6 +83,21 @@ public class Main {
                 boardPane.animate();
             }
 
+            @Override
+            public void onSweep() {
+                sweep();
+            }
+
+            @Override
+            public void onOpen() {
+                open();
+            }
+
+            @Override
+            public void onSave() {
+                save();
+            }
+
             @Override
             public void onQuit() {
                 System.exit(0);
@@ -78,33 +105,47 @@ public class Main {
         };
     }
 
-    private void animate(int[][] board) {
-        boardPane.setVisible(false);
-        //  boardPane.draw(board);
-        boardPane.animate();
-        boardPane.setVisible(true);
-    }
-
-    private void run(Engine engine, int x, int y) {
-        List<Board> boards = engine.solve(x, y) //
-                .toList();
-        boards.stream().findFirst().
-                map(Board::getMoves).ifPresent(this::animate);
-    }
-
     private void start() {
+        if (!model.getBoardSize().isSearchable() && !model.isConstruct() && model.getFirstTours() == 0) {
+            JOptionPane.showMessageDialog(boardPane, "Die Suche aller Lösungen endet auf "
+                    + model.getBoardSize().dim() + " nicht, Search > Construct oder erste Touren wählen",
+                    "Start", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (sweep != null) {
+            sweep.stop();
+        }
         model.setMode(RUN);
-        new SwingWorker<List<Board>, Board>() {
+        new SwingWorker<List<Tour>, Board>() {
             @Override
-            protected List<Board> doInBackground() {
+            protected List<Tour> doInBackground() throws IOException {
                 try {
                     engine = new Engine(model.getBoard(), model.getThreadCount());
-                    List<Board> boards = engine.solve(model.getStartPosition().x(), model.getStartPosition().y()) //
-                            .peek(this::publish)
-                            .limit(1_000_000)
-                            .collect(toList());
-                    model.setBoards(boards);
-                    return boards;
+                    engine.setRepresentation(model.getRepresentation());
+                    engine.setExecution(model.getExecution());
+                    if (model.isSymmetry()) {
+                        engine.setSymmetry(Engine.Symmetry.MIRROR);
+                    }
+                    int limit = Integer.MAX_VALUE;
+                    if (model.getFirstTours() > 0) {
+                        engine.setOrder(Engine.Order.WARNSDORFF);
+                        limit = model.getFirstTours();
+                    }
+                    Function<Board, Tour> encoder = Tour.encoder(model.getBoard());
+                    TourStore tours = TourStore.temporary(model.getBoard());
+                    try (Stream<Board> solutions = model.isConstruct()
+                            ? engine.construct(model.getStartPosition().x(), model.getStartPosition().y())
+                            : engine.solve(model.getStartPosition().x(), model.getStartPosition().y(), limit)) {
+                        solutions.peek(this::publish)
+                                .map(encoder)
+                                .forEach(tours::add);
+                        tours.seal();
+                    } catch (IOException | RuntimeException e) {
+                        tours.close();
+                        throw e;
+                    }
+                    model.setTours(tours);     // schliesst und löscht den vorigen Speicher
+                    return tours;
                 } catch (Exception ex) {
                     model.setMode(SET);
                     throw ex;
@@ -138,7 +179,99 @@ public class Main {
         }.execute();
     }
 
+    /**
+     * Zählt die Lösungen aller Startfelder des eingestellten Bretts und zeigt sie als Heatmap
+     */
+    private void sweep() {
+        if (sweep != null) {
+            return;
+        }
+        if (!model.getBoardSize().isSearchable()) {
+            JOptionPane.showMessageDialog(boardPane, "Der Sweep endet auf " + model.getBoardSize().dim() + " nicht",
+                    "Sweep", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        sweep = new Sweep(model.getBoard(), model.getThreadCount());
+        if (model.getRepresentation() != Engine.Representation.ARRAY) {
+            sweep.setRepresentation(model.getRepresentation());
+        }
+        sweep.setPruning(true);
+        new SwingWorker<long[][], Void>() {
+            @Override
+            protected long[][] doInBackground() {
+                return sweep.run();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    long[][] counts = get();
+                    Dim size = model.getBoardSize().dim();
+                    if (model.getMode() == SET && counts.length == size.x() && counts[0].length == size.y()) {
+                        boardPane.heatmap(counts);
+                    }
+                } catch (Exception e) {
+                    if (!(e.getCause() instanceof CancellationException)) {  // gestoppt: keine Heatmap
+                        JOptionPane.showMessageDialog(boardPane, e.getMessage(), "Sweep", JOptionPane.ERROR_MESSAGE);
+                    }
+                } finally {
+                    sweep = null;
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Gespeicherte Lösungen öffnen, ohne erneute Suche
+     */
+    private void open() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(boardPane) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            TourStore tours = TourStore.open(chooser.getSelectedFile().toPath());
+            Model.BoardSize boardSize = Arrays.stream(Model.BoardSize.values())
+                    .filter(size -> size.dim().equals(tours.getSize())).findFirst().orElse(null);
+            if (boardSize == null) {
+                tours.close();
+                throw new IOException("Brettgrösse nicht unterstützt: " + tours.getSize());
+            }
+            stop();
+            synchronized (SET) {
+                model.setMode(SET);
+            }
+            model.setBoardSize(boardSize);
+            model.setTours(tours);
+            model.setSolutions(tours.size());
+            if (!tours.isEmpty()) {
+                model.setBoard(tours.get(0).board());
+            }
+            model.setMode(VIEW);
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(boardPane, e.getMessage(), "Open", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void save() {
+        if (!(model.getTours() instanceof TourStore tours)) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showSaveDialog(boardPane) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Files.copy(tours.getFile(), chooser.getSelectedFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(boardPane, e.getMessage(), "Save", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void stop() {
+        if (sweep != null) {
+            sweep.stop();
+        }
         synchronized (RUN) {
             if (model.getMode() == RUN) {
                 engine.stop();
@@ -152,26 +285,14 @@ public class Main {
     }
 
 
-    private void start(String[] args) {
-        int size_x, size_y, x = 0, y = 0;
+    /**
+     * Ohne Argumente die Oberfläche, sonst die Suche ohne Oberfläche, siehe {@link Runner}
+     */
+    public static void main(String[] args) {
         if (args.length > 0) {
-            if (args[0].matches("\\dx\\d")) {
-                size_x = Integer.parseInt(String.valueOf(args[0].charAt(0)));
-                size_y = Integer.parseInt(String.valueOf(args[0].charAt(2)));
-            } else {
-                throw new IllegalArgumentException("Invalid argument: " + args[0]);
-            }
-            if (args.length == 3) {
-                x = Integer.parseInt(args[1]);
-                y = Integer.parseInt(args[2]);
-            }
-            Engine engine = new Engine(new Dim(size_x, size_y));
-            run(engine, x, y);
+            Runner.main(args);
+        } else {
+            new Main();
         }
     }
-
-    public static void main(String[] args) {
-        Main main = new Main();
-        main.start(args);
-    }
 }
@@ -1,24 +1,32 @@
 package knight.ui;
 
 import knight.model.Engine;
+import knight.model.TourStore;
 
 import javax.swing.*;
 import java.util.HashMap;
 import java.util.Map;
 
 import static knight.ui.Model.Mode.RUN;
+import static knight.ui.Model.Mode.SET;
 import static knight.ui.Model.Mode.VIEW;
 
 public class Menu extends JMenuBar {
-    private static final int[] THREAD_COUNT = {1, 2, 4, 6, 8, 12, 16};
+    private static final int[] FIRST_TOURS = {0, 1, 10, 100};  // 0 = alle Lösungen
 
     private final Model model;
     private final ActionListener actionListener;
 
     private final Map<Integer, JRadioButtonMenuItem> threadMenuItemMap = new HashMap<>();
+    private final Map<Engine.Representation, JRadioButtonMenuItem> boardMenuItemMap = new HashMap<>();
+    private final Map<Engine.Execution, JRadioButtonMenuItem> executionMenuItemMap = new HashMap<>();
+    private final Map<Integer, JRadioButtonMenuItem> searchMenuItemMap = new HashMap<>();
 
     private JMenuItem startStopItem;
     private JMenuItem showItem;
+    private JMenuItem sweepItem;
+    private JMenuItem openItem;
+    private JMenuItem saveItem;
 
     public Menu(Model model, ActionListener actionListener) {
         this.model = model;
@@ -30,6 +38,9 @@ public class Menu extends JMenuBar {
     private void menuState(Model.Mode mode) {
         startStopItem.setEnabled(mode != VIEW);
         showItem.setEnabled(mode == VIEW);
+        sweepItem.setEnabled(mode == SET);
+        openItem.setEnabled(mode != RUN);
+        saveItem.setEnabled(mode == VIEW && model.getTours() instanceof TourStore);
     }
 
     private void createMenu() {
@@ -47,11 +58,23 @@ public class Menu extends JMenuBar {
         showItem = knightItem("Show", actionListener::onShow);
         showItem.setEnabled(false);
         knightMenu.add(showItem);
+        sweepItem = knightItem("Sweep", actionListener::onSweep);
+        knightMenu.add(sweepItem);
+        knightMenu.addSeparator();
+        openItem = knightItem("Open...", actionListener::onOpen);
+        knightMenu.add(openItem);
+        saveItem = knightItem("Save...", actionListener::onSave);
+        saveItem.setEnabled(false);
+        knightMenu.add(saveItem);
         knightMenu.addSeparator();
         knightMenu.add(knightItem("Quit", actionListener::onQuit));
         add(knightMenu);
         // Menu "Thread"
         add(threadMenu());
+        // Menu "Board"
+        add(boardMenu());
+        // Menu "Search"
+        add(searchMenu());
     }
 
     private JMenuItem knightItem(String title, Runnable action) {
@@ -62,7 +85,7 @@ public class Menu extends JMenuBar {
 
     private JMenu threadMenu() {
         JMenu threadMenu = new JMenu("Thread");
-        for (int threadCount : THREAD_COUNT) {
+        for (int threadCount : Engine.THREAD_COUNTS) {
             JRadioButtonMenuItem menuItem = new JRadioButtonMenuItem(Integer.toString(threadCount));
             menuItem.setSelected(threadCount == Engine.DEFAULT_THREAD_COUNT);
             menuItem.addActionListener(a -> {
@@ -72,6 +95,56 @@ public class Menu extends JMenuBar {
             threadMenuItemMap.put(threadCount, menuItem);
             threadMenu.add(menuItem);
         }
+        threadMenu.addSeparator();
+        for (Engine.Execution execution : Engine.Execution.values()) {
+            JRadioButtonMenuItem menuItem = new JRadioButtonMenuItem(execution.name());
+            menuItem.setSelected(execution == model.getExecution());
+            menuItem.setEnabled(Engine.supports(execution));
+            menuItem.addActionListener(a -> {
+                executionMenuItemMap.get(model.getExecution()).setSelected(false);
+                model.setExecution(execution);
+            });
+            executionMenuItemMap.put(execution, menuItem);
+            threadMenu.add(menuItem);
+        }
         return threadMenu;
     }
+
+    private JMenu searchMenu() {
+        JMenu searchMenu = new JMenu("Search");
+        for (int firstTours : FIRST_TOURS) {
+            JRadioButtonMenuItem menuItem = new JRadioButtonMenuItem(
+                    firstTours == 0 ? "All" : "First " + firstTours + " (Warnsdorff)");
+            menuItem.setSelected(firstTours == model.getFirstTours());
+            menuItem.addActionListener(a -> {
+                searchMenuItemMap.get(model.getFirstTours()).setSelected(false);
+                model.setFirstTours(firstTours);
+            });
+            searchMenuItemMap.put(firstTours, menuItem);
+            searchMenu.add(menuItem);
+        }
+        searchMenu.addSeparator();
+        JCheckBoxMenuItem symmetryItem = new JCheckBoxMenuItem("Mirror symmetry");
+        symmetryItem.addActionListener(a -> model.setSymmetry(symmetryItem.isSelected()));
+        searchMenu.add(symmetryItem);
+        JCheckBoxMenuItem constructItem = new JCheckBoxMenuItem("Construct (even sides from 6)");
+        constructItem.addActionListener(a -> model.setConstruct(constructItem.isSelected()));
+        searchMenu.add(constructItem);
+        return searchMenu;
+    }
+
+    private JMenu boardMenu() {
+        JMenu boardMenu = new JMenu("Board");
+        for (Engine.Representation representation : Engine.Representation.values()) {
+            JRadioButtonMenuItem menuItem = new JRadioButtonMenuItem(representation.name());
+            menuItem.setSelected(representation == model.getRepresentation());
+            menuItem.addActionListener(a -> {
+                boardMenuItemMap.get(model.getRepresentation()).setSelected(false);
+                model.setRepresentation(representation);
+            });
+            boardMenuItemMap.put(representation, menuItem);
+            boardMenu.add(menuItem);
+        }
+        return boardMenu;
+    }
 }
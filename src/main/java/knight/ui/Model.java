@@ -3,7 +3,11 @@ package knight.ui;
 import knight.model.Board;
 import knight.model.Dim;
 import knight.model.Engine;
+import knight.model.Tour;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -13,38 +17,57 @@ public class Model {
     enum Mode {SET, RUN, VIEW}
 
     enum BoardSize {
-        SIZE_5x5(new Dim(5, 5)),
-        SIZE_6x4(new Dim(6, 4)),
-        SIZE_6x5(new Dim(6, 5)),
-        SIZE_6x6(new Dim(6, 6)),
-        SIZE_7x5(new Dim(7, 5)),
-        SIZE_7x6(new Dim(7, 6));
+        SIZE_5x5(new Dim(5, 5), true),
+        SIZE_6x4(new Dim(6, 4), true),
+        SIZE_6x5(new Dim(6, 5), true),
+        SIZE_6x6(new Dim(6, 6), true),
+        SIZE_7x5(new Dim(7, 5), true),
+        SIZE_7x6(new Dim(7, 6), true),
+        SIZE_8x8(new Dim(8, 8), false),
+        SIZE_10x10(new Dim(10, 10), false),
+        SIZE_16x16(new Dim(16, 16), false),
+        SIZE_20x20(new Dim(20, 20), false);
         private final Dim size;
+        private final boolean searchable;   // vollständige Suche endet in vertretbarer Zeit
 
-        BoardSize(Dim size) {
+        BoardSize(Dim size, boolean searchable) {
             this.size = size;
+            this.searchable = searchable;
         }
 
         public Dim dim() {
             return size;
         }
 
+        /**
+         * Alle Lösungen oder ein Sweep sind möglich, sonst nur Construct oder die ersten Touren
+         */
+        public boolean isSearchable() {
+            return searchable;
+        }
+
         public String toString() {
-            return size.toString();
+            return searchable ? size.toString() : size + " (Construct)";
         }
     }
 
     private Model.Mode mode = Mode.SET;
 
     private Model.BoardSize boardSize = Model.BoardSize.SIZE_5x5;
-    private List<Board> boards = Collections.emptyList();
+    private List<Tour> tours = Collections.emptyList();
+    private int tourIndex;     // angezeigte Lösung im VIEW Modus
     private Board board = new Board(BoardSize.SIZE_5x5.size);
     private Dim startPosition = new Dim(0,0);
     private long moves;
-    private int solutions;
+    private long solutions;
     private int errors;
 
     private int threadCount = Engine.DEFAULT_THREAD_COUNT;
+    private Engine.Representation representation = Engine.Representation.ARRAY;
+    private Engine.Execution execution = Engine.Execution.POOL;
+    private int firstTours;     // 0 = alle Lösungen
+    private boolean symmetry;   // Spiegelsymmetrie ausnutzen
+    private boolean construct;  // geschlossene Tour ohne Suche zusammensetzen
 
     private final List<Consumer<Mode>> modeListener = new ArrayList<>();
     private final List<Consumer<Model.BoardSize>> sizeListener = new ArrayList<>();
@@ -94,12 +117,28 @@ public class Model {
     }
 
 
-    public List<Board> getBoards() {
-        return boards;
+    public List<Tour> getTours() {
+        return tours;
+    }
+
+    public void setTours(List<Tour> tours) {
+        if (this.tours instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.tours = tours;
+        this.tourIndex = 0;
+    }
+
+    public int getTourIndex() {
+        return tourIndex;
     }
 
-    public void setBoards(List<Board> boards) {
-        this.boards = boards;
+    public void setTourIndex(int tourIndex) {
+        this.tourIndex = tourIndex;
     }
 
 
@@ -111,11 +150,11 @@ public class Model {
         this.moves = moves;
     }
 
-    public int getSolutions() {
+    public long getSolutions() {
         return solutions;
     }
 
-    public void setSolutions(int solutions) {
+    public void setSolutions(long solutions) {
         this.solutions = solutions;
     }
 
@@ -135,6 +174,46 @@ public class Model {
         this.threadCount = threadCount;
     }
 
+    public Engine.Representation getRepresentation() {
+        return representation;
+    }
+
+    public void setRepresentation(Engine.Representation representation) {
+        this.representation = representation;
+    }
+
+    public Engine.Execution getExecution() {
+        return execution;
+    }
+
+    public void setExecution(Engine.Execution execution) {
+        this.execution = execution;
+    }
+
+    public int getFirstTours() {
+        return firstTours;
+    }
+
+    public void setFirstTours(int firstTours) {
+        this.firstTours = firstTours;
+    }
+
+    public boolean isSymmetry() {
+        return symmetry;
+    }
+
+    public void setSymmetry(boolean symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    public boolean isConstruct() {
+        return construct;
+    }
+
+    public void setConstruct(boolean construct) {
+        this.construct = construct;
+    }
+
     public void addModeListener(Consumer<Mode> listener) {
         modeListener.add(listener);
     }
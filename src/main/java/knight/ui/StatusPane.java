@@ -7,7 +7,6 @@ import javax.swing.*;
 import javax.swing.border.Border;
 import java.awt.*;
 import java.text.NumberFormat;
-import java.util.stream.IntStream;
 
 public class StatusPane extends JPanel {
     private final Model model;
@@ -37,9 +36,7 @@ public class StatusPane extends JPanel {
                 }
             }
             case VIEW -> {
-                int index = IntStream.range(0, model.getBoards().size())
-                        .filter(i -> model.getBoards().get(i) == board).findFirst().orElse(0);
-                rightField.setText(String.format("%d / %d", index + 1, model.getBoards().size()));
+                rightField.setText(String.format("%d / %d", model.getTourIndex() + 1, model.getTours().size()));
             }
         }
     }
@@ -61,7 +58,9 @@ public class StatusPane extends JPanel {
                 } else {
                     rightField.setText("Errors (see log): " + model.getErrors());
                 }
-                setInfo(String.format("Zeit (s): %8.3f", 0.001f * (System.currentTimeMillis() - startTicks)));
+                long millis = Math.max(1, System.currentTimeMillis() - startTicks);
+                setInfo(String.format("Zeit (s): %8.3f  Züge/s: %s", 0.001f * millis,
+                        NumberFormat.getIntegerInstance().format(1000 * model.getMoves() / millis)));
             }
         }
     }
@@ -70,7 +69,7 @@ public class StatusPane extends JPanel {
         leftField.setText(info);
     }
 
-    void setStatus(long moves, int solutions) {
+    void setStatus(long moves, long solutions) {
         rightField.setText(String.format("Züge: %12s Lösungen: %6s",
                 NumberFormat.getIntegerInstance().format(moves),
                 NumberFormat.getIntegerInstance().format(solutions)));
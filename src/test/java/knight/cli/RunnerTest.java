@@ -0,0 +1,40 @@
+package knight.cli;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RunnerTest {
+
+    @Test
+    void parse() {
+        assertDoesNotThrow(() -> new Runner().parse(new String[]{"5x5", "--start", "4,4", "--blacks", "0,0:1,2",
+                "--representation", "TABLE", "--pruning", "--limit", "3"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5by5"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5x5", "--start", "9,9"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5x5", "--start", "-1,0"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5x5", "--blacks", "5,0"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Runner().parse(new String[]{"5x5", "--blacks", "1,1", "--start", "1,1"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5x5", "--order", "NONE"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5x5", "--portfolio"}));
+        assertThrows(IllegalArgumentException.class, () -> new Runner().parse(new String[]{"5x5", "--cache", "1073741824"}));
+    }
+
+    @Test
+    void exitCode() {
+        assertEquals(0, Runner.execute(new String[]{"5x5", "--count", "--output", "none"}));
+        assertEquals(0, Runner.execute(new String[]{"5x5", "--limit", "5", "--output", "none"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--start", "9,9", "--count"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--layouts", "7,7", "--output", "none"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--count", "--limit", "10"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--split", "ADAPTIVE", "--count"}));
+        assertEquals(0, Runner.execute(new String[]{"5x5", "--execution", "FORK_JOIN", "--split", "ADAPTIVE", "--count"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--closed", "--count"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--pruning", "--count"}));
+        assertEquals(2, Runner.execute(new String[]{"5x5", "--representation", "TABLE", "--cache", "1024", "--count"}));
+    }
+}
@@ -2,17 +2,38 @@ package knight.model;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 class BoardTest {
 
     @Test
     void move() {
+        Board board = new Board(new Dim(5, 5));
+        board.start(0, 0);
+        board.move(new Dim(1, 2));
+        assertEquals(2, board.getMoves()[1][2]);
+        assertEquals(2, board.step);
+        assertEquals(2, board.getCount());
     }
 
     @Test
     void undo() {
+        Board board = new Board(new Dim(5, 5));
+        board.start(0, 0);
+        board.move(new Dim(1, 2));
+        board.undo(new Dim(1, 2));
+        assertEquals(0, board.getMoves()[1][2]);
+        assertEquals(1, board.step);
+        assertEquals(0, board.x);
+        assertEquals(0, board.y);
     }
 
     @Test
     void check() {
+        Board board = new Board(new Dim(5, 5), new Dim(2, 1));
+        board.start(0, 0);
+        assertTrue(board.check(new Dim(1, 2)));
+        assertFalse(board.check(new Dim(2, 1)));
+        assertFalse(board.check(new Dim(-1, 2)));
     }
-}
\ No newline at end of file
+}
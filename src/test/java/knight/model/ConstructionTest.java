@@ -0,0 +1,38 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConstructionTest {
+
+    @Test
+    void path() {
+        for (int x = 6; x <= 32; x += 2) {
+            for (int y = 6; y <= 32; y += 2) {
+                Dim size = new Dim(x, y);
+                int[] path = Construction.path(size, new Dim(1, 2));
+                assertEquals(size.area(), path.length);
+                assertEquals(new Dim(1, 2).linear(size), path[0]);
+            }
+        }
+    }
+
+    @Test
+    void construct() {
+        Engine engine = new Engine(new Dim(100, 60), 1);
+        Board board = engine.construct(7, 5).findFirst().orElseThrow();
+        assertEquals(1, board.getMoves()[7][5]);
+        assertEquals(6000, board.step);
+        assertEquals(2, Math.abs((board.x - 7) * (board.y - 5)));
+        assertEquals(1, engine.solutions());
+    }
+
+    @Test
+    void unsupported() {
+        assertThrows(IllegalStateException.class, () -> new Engine(new Dim(7, 8), 1).construct(0, 0));
+        assertThrows(IllegalStateException.class, () -> new Engine(new Dim(4, 8), 1).construct(0, 0));
+        assertThrows(IllegalStateException.class, () -> new Engine(new Dim(8, 8), 1, new Dim(0, 0)).construct(1, 1));
+    }
+}
@@ -0,0 +1,352 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineTest {
+
+    @Test
+    void solveArray() {
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        assertEquals(304, engine.solve(0, 0).count());
+        assertEquals(0, engine.errors());
+    }
+
+    @Test
+    void solveBitBoard() {
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setRepresentation(Engine.Representation.BITBOARD);
+        assertEquals(304, engine.solve(0, 0).count());
+        assertEquals(0, engine.errors());
+    }
+
+    @Test
+    void solveTable() {
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setRepresentation(Engine.Representation.TABLE);
+        assertEquals(304, engine.solve(0, 0).count());
+        assertEquals(0, engine.errors());
+    }
+
+    @Test
+    void solveWithBlacks() {
+        for (Engine.Representation representation : Engine.Representation.values()) {
+            Engine engine = new Engine(new Dim(5, 5), 2, new Dim(4, 4));
+            engine.setRepresentation(representation);
+            assertEquals(1252, engine.solve(0, 0).count(), representation.name());
+        }
+    }
+
+    @Test
+    void solveForkJoin() {
+        Engine pool = new Engine(new Dim(5, 5), 4);
+        assertEquals(304, pool.solve(0, 0).count());
+        Engine forkJoin = new Engine(new Dim(5, 5), 4);
+        forkJoin.setExecution(Engine.Execution.FORK_JOIN);
+        assertEquals(304, forkJoin.solve(0, 0).count());
+        assertEquals(pool.moves(), forkJoin.moves());
+        assertEquals(0, forkJoin.errors());
+    }
+
+    @Test
+    void solveAdaptiveSplit() {
+        Engine engine = new Engine(new Dim(5, 5), 4);
+        engine.setExecution(Engine.Execution.FORK_JOIN);
+        engine.setSplit(Engine.Split.ADAPTIVE);
+        assertEquals(304, engine.solve(0, 0).count());
+        assertEquals(1735079, engine.moves());
+        // 6x5: rund 100 Mio. Züge, gross genug für viele Teilbäume ab SPLIT_GRAIN
+        Engine split = new Engine(new Dim(6, 5), 4);
+        split.setRepresentation(Engine.Representation.TABLE);
+        split.setExecution(Engine.Execution.FORK_JOIN);
+        split.setSplit(Engine.Split.ADAPTIVE);
+        assertEquals(4542, split.count(0, 0));
+        assertEquals(98742288, split.moves());
+        TaskStatistics statistics = split.taskStatistics();
+        assertTrue(statistics.tasks() >= 16, statistics.toString());
+        assertTrue(statistics.median() >= Engine.SPLIT_GRAIN / 2, statistics.toString());
+        assertTrue(statistics.max() <= 32 * statistics.median(), statistics.toString());
+    }
+
+    @Test
+    void solveWarnsdorff() {
+        for (Engine.Representation representation : Engine.Representation.values()) {
+            Engine engine = new Engine(new Dim(5, 5), 2);
+            engine.setRepresentation(representation);
+            engine.setOrder(Engine.Order.WARNSDORFF);
+            assertEquals(304, engine.solve(0, 0).count(), representation.name());
+        }
+    }
+
+    @Test
+    void solveFirst() {
+        Engine engine = new Engine(new Dim(7, 6), 2);
+        engine.setRepresentation(Engine.Representation.TABLE);
+        engine.setOrder(Engine.Order.WARNSDORFF);
+        assertEquals(3, engine.solve(0, 0, 3).count());
+        assertEquals(3, engine.solutions());
+    }
+
+    @Test
+    void solvePruning() {
+        for (Engine.Representation representation : new Engine.Representation[]{
+                Engine.Representation.TABLE, Engine.Representation.BITBOARD}) {
+            for (int connectivity : new int[]{0, 1, 4}) {
+                Engine engine = new Engine(new Dim(5, 5), 2);
+                engine.setRepresentation(representation);
+                engine.setPruning(true);
+                engine.setConnectivity(connectivity);
+                assertEquals(304, engine.solve(0, 0).count(), representation.name());
+                assertTrue(engine.moves() < 1735079 / 10);
+            }
+        }
+    }
+
+    @Test
+    void count() {
+        for (Engine.Execution execution : Engine.Execution.values()) {
+            if (!Engine.supports(execution)) continue;
+            Engine engine = new Engine(new Dim(5, 5), 4);
+            engine.setExecution(execution);
+            assertEquals(304, engine.count(0, 0), execution.name());
+            assertEquals(1735079, engine.moves());
+            assertEquals(304, engine.solutions());
+        }
+    }
+
+    @Test
+    void countSymmetry() {
+        Engine plain = new Engine(new Dim(5, 5), 2);
+        long expected = plain.count(2, 2);
+        for (Engine.Representation representation : Engine.Representation.values()) {
+            Engine engine = new Engine(new Dim(5, 5), 2);
+            engine.setRepresentation(representation);
+            engine.setSymmetry(Engine.Symmetry.REDUCE);
+            assertEquals(expected, engine.count(2, 2), representation.name());
+            assertTrue(engine.moves() * 3 < plain.moves());
+        }
+    }
+
+    @Test
+    void solveMirror() {
+        Formatter formatter = new Formatter();
+        Set<String> expected = new Engine(new Dim(5, 5), 2).solve(2, 2).map(formatter::format).collect(toSet());
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setSymmetry(Engine.Symmetry.MIRROR);
+        List<String> tours = engine.solve(2, 2).map(formatter::format).toList();
+        assertEquals(64, expected.size());
+        assertEquals(expected.size(), tours.size());
+        assertEquals(expected, new HashSet<>(tours));
+        assertEquals(expected.size(), engine.solutions());
+    }
+
+    @Test
+    void countClosed() {
+        for (Engine.Representation representation : new Engine.Representation[]{
+                Engine.Representation.TABLE, Engine.Representation.BITBOARD}) {
+            for (boolean pruning : new boolean[]{false, true}) {
+                Engine engine = new Engine(new Dim(6, 5), 2);
+                engine.setRepresentation(representation);
+                engine.setPruning(pruning);
+                engine.setClosed(true);
+                assertEquals(8, engine.count(0, 0), representation.name());
+            }
+        }
+    }
+
+    @Test
+    void solveClosed() {
+        Engine engine = new Engine(new Dim(6, 5), 2);
+        engine.setRepresentation(Engine.Representation.TABLE);
+        engine.setClosed(true);
+        List<Board> tours = engine.solve(2, 3).toList();
+        assertEquals(8, tours.size());
+        for (Board tour : tours) {
+            assertEquals(1, tour.getMoves()[2][3]);
+            assertEquals(2, Math.abs((tour.x - 2) * (tour.y - 3)));
+        }
+    }
+
+    @Test
+    void bitBoardSolutionIsTour() {
+        Engine engine = new Engine(new Dim(5, 5), 1);
+        engine.setRepresentation(Engine.Representation.BITBOARD);
+        try (Stream<Board> solutions = engine.solve(0, 0)) {
+            Board board = solutions.findFirst().orElseThrow();
+            assertEquals(1, board.getMoves()[0][0]);
+            assertEquals(25, board.step);
+        }
+    }
+
+    @Test
+    void tourEncoding() {
+        Board layout = new Board(new Dim(5, 5), new Dim(4, 4));
+        Function<Board, Tour> encoder = Tour.encoder(layout);
+        for (Board board : new Engine(layout, 2).solve(0, 0).toList()) {
+            Board decoded = encoder.apply(board).board();
+            assertArrayEquals(board.getMoves(), decoded.getMoves());
+            assertEquals(board.step, decoded.step);
+            assertEquals(new Dim(board.x, board.y), new Dim(decoded.x, decoded.y));
+        }
+    }
+
+    @Test
+    void slowConsumer() {
+        Engine engine = new Engine(new Dim(5, 5), 2, new Dim(4, 4));
+        AtomicBoolean first = new AtomicBoolean(true);
+        long count = engine.solve(0, 0).peek(board -> {
+            if (first.getAndSet(false)) {
+                try {
+                    Thread.sleep(1500);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }).count();
+        assertEquals(1252, count);
+        assertEquals(0, engine.errors());
+    }
+
+    @Test
+    void solveVirtual() {
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setExecution(Engine.Execution.VIRTUAL);
+        if (Engine.supports(Engine.Execution.VIRTUAL)) {
+            assertEquals(304, engine.solve(0, 0).count());
+            assertEquals(0, engine.errors());
+            assertEquals(Set.of("virtual"), engine.threadMoves().keySet());    // ein Zähler für alle Tasks
+            assertEquals(engine.moves(), engine.threadMoves().get("virtual"));
+        } else {
+            assertThrows(IllegalStateException.class, () -> engine.solve(0, 0));
+        }
+    }
+
+    @Test
+    void countCached() {
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setRepresentation(Engine.Representation.BITBOARD);
+        engine.setCacheSize(1 << 16);
+        assertEquals(304, engine.count(0, 0));
+        assertTrue(engine.cacheHits() > 0);
+        assertEquals(engine.cacheLookups(), engine.metrics().getCacheLookups());
+        assertEquals((double) engine.cacheHits() / engine.cacheLookups(), engine.metrics().getCacheHitRate());
+        assertTrue(engine.moves() < 1735079);
+        Engine solver = new Engine(new Dim(5, 5), 2);
+        solver.setRepresentation(Engine.Representation.BITBOARD);
+        solver.setCacheSize(1 << 16);
+        assertEquals(304, solver.solve(0, 0).count());
+        assertThrows(IllegalArgumentException.class, () -> solver.setCacheSize(1 << 30));
+        assertThrows(IllegalArgumentException.class, () -> solver.setCacheSize(-1));
+    }
+
+    @Test
+    void resumeCheckpoint(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("5x5.checkpoint");
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setCheckpoint(file);
+        assertEquals(304, engine.count(0, 0));
+        // Abbruch nach der Hälfte der Teilbäume, letzte Zeile unvollständig
+        List<String> lines = Files.readAllLines(file);
+        Files.writeString(file, String.join("\n", lines.subList(0, lines.size() / 2)) + "\n" + lines.get(lines.size() - 1).substring(0, 4));
+        for (Engine.Execution execution : new Engine.Execution[]{Engine.Execution.POOL, Engine.Execution.FORK_JOIN}) {
+            Engine resumed = new Engine(new Dim(5, 5), 2);
+            resumed.setExecution(execution);
+            resumed.setCheckpoint(file);
+            assertEquals(304, resumed.count(0, 0), execution.name());
+            assertEquals(1735079, resumed.moves(), execution.name());
+        }
+    }
+
+    @Test
+    void solveCheckpointSymmetry(@TempDir Path dir) {
+        Path file = dir.resolve("5x5.checkpoint");
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        engine.setSymmetry(Engine.Symmetry.REDUCE);
+        engine.setCheckpoint(file);
+        assertTrue(engine.solve(2, 2).count() < 64);
+        assertEquals(Engine.Status.COMPLETE, engine.result().status());
+        assertEquals(64, engine.solutions());
+        // abgeschlossene Suche, alle Lösungen gewichtet aus dem Checkpoint
+        Engine resumed = new Engine(new Dim(5, 5), 2);
+        resumed.setSymmetry(Engine.Symmetry.REDUCE);
+        resumed.setCheckpoint(file);
+        assertEquals(64, resumed.count(2, 2));
+        assertEquals(engine.moves(), resumed.moves());
+    }
+
+    @Test
+    void result() {
+        Engine complete = new Engine(new Dim(5, 5), 2);
+        assertEquals(304, complete.solve(0, 0).count());
+        assertEquals(new Engine.Result(Engine.Status.COMPLETE, 304, 1735079, complete.result().nanos()), complete.result());
+        Engine truncated = new Engine(new Dim(5, 5), 2);
+        assertEquals(7, truncated.solve(0, 0, 7).count());
+        assertEquals(Engine.Status.TRUNCATED, truncated.result().status());
+        Engine cancelled = new Engine(new Dim(5, 5), 2);
+        try (Stream<Board> solutions = cancelled.solve(0, 0)) {
+            assertTrue(solutions.findFirst().isPresent());
+        }
+        assertEquals(Engine.Status.CANCELLED, cancelled.result().status());
+    }
+
+    @Test
+    void resultFailed() {
+        for (Engine.Execution execution : List.of(Engine.Execution.POOL, Engine.Execution.FORK_JOIN)) {
+            Engine engine = new Engine(new Dim(5, 5), 2);
+            engine.setExecution(execution);
+            Engine.Result result = engine.count(9, 9, Duration.ZERO);
+            assertEquals(Engine.Status.FAILED, result.status(), execution.name());
+            assertEquals(1, engine.errors(), execution.name());
+        }
+    }
+
+    @Test
+    void timeout() throws InterruptedException {
+        for (Engine.Execution execution : Engine.Execution.values()) {
+            if (!Engine.supports(execution)) continue;
+            Engine engine = new Engine(new Dim(8, 8), 4);
+            engine.setExecution(execution);
+            Engine.Result result = engine.count(0, 0, Duration.ofMillis(200));
+            assertEquals(Engine.Status.TIMED_OUT, result.status(), execution.name());
+            assertTrue(result.nanos() < Duration.ofMillis(1200).toNanos(), execution.name());
+            long moves = engine.moves();
+            Thread.sleep(50);
+            assertEquals(moves, engine.moves(), execution.name());
+        }
+    }
+
+    @Test
+    void metrics() throws JMException {
+        Engine engine = new Engine(new Dim(5, 5), 2);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = ((EngineMetrics) engine.metrics()).getName();
+        Stream<Board> solutions = engine.solve(0, 0);
+        assertTrue(server.isRegistered(name));
+        assertEquals(304, solutions.count());
+        assertFalse(server.isRegistered(name));
+        assertEquals(engine.moves(), engine.metrics().getThreadMoves().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(0, engine.metrics().getActiveTasks());
+    }
+}
@@ -0,0 +1,54 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayoutsTest {
+
+    @Test
+    void symmetric() {
+        List<Dim[]> layouts = Layouts.symmetric(new Dim(5, 5), 2, Mirror.BOTH);
+        assertEquals(12, layouts.size());
+        for (Dim[] layout : layouts) {
+            assertEquals(layout[0].mirrorBoth(new Dim(5, 5)), layout[1]);
+        }
+        assertEquals(12, Layouts.symmetric(new Dim(5, 5), 3, Mirror.BOTH).size());
+        assertEquals(66, Layouts.symmetric(new Dim(5, 5), 4, Mirror.BOTH).size());
+    }
+
+    @Test
+    void run() throws IOException {
+        Layouts layouts = new Layouts(new Dim(5, 5), 2);
+        layouts.setStart(new Dim(2, 2));
+        layouts.setPruning(true);
+        List<Layouts.Result> results = layouts.run(List.of(
+                new Dim[]{new Dim(0, 0)}, new Dim[]{new Dim(4, 4)}, new Dim[]{new Dim(4, 0)}, new Dim[]{new Dim(2, 2)}));
+        long expected = new Engine(new Dim(5, 5), 2, new Dim(0, 0)).count(2, 2);
+        assertEquals(expected, results.get(0).solutions());
+        assertEquals(-1, results.get(0).duplicateOf());
+        assertEquals(expected, results.get(1).solutions());
+        assertEquals(0, results.get(1).duplicateOf());
+        assertEquals(0, results.get(1).moves());
+        assertEquals(0, results.get(2).duplicateOf());
+        assertEquals(0, results.get(3).solutions());
+        StringWriter csv = new StringWriter();
+        Layouts.write(results, csv);
+        assertTrue(csv.toString().contains("\n1,\"4,4\"," + expected + ",0,0\n"));
+    }
+
+    @Test
+    void runAllStarts() {
+        Layouts layouts = new Layouts(new Dim(5, 5), 2);
+        layouts.setStart(null);
+        layouts.setPruning(true);
+        List<Layouts.Result> results = layouts.run(List.of(new Dim[]{}, new Dim[]{new Dim(4, 4)}, new Dim[]{new Dim(0, 4)}));
+        assertEquals(4 * 304 + 8 * 56 + 64, results.get(0).solutions());
+        assertEquals(1, results.get(2).duplicateOf());
+    }
+}
@@ -0,0 +1,60 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class PortfolioTest {
+
+    @Test
+    void solve() {
+        Portfolio portfolio = new Portfolio(new Board(new Dim(7, 6)), 3);
+        List<Board> tours = portfolio.solve(0, 0, 3).toList();
+        assertEquals(3, tours.size());
+        assertEquals(3, portfolio.solutions());
+        assertNotNull(portfolio.winner());
+        for (Board tour : tours) {
+            assertEquals(1, tour.getMoves()[0][0]);
+            assertEquals(42, tour.step);
+        }
+    }
+
+    @Test
+    void solveArray() {
+        Portfolio portfolio = new Portfolio(new Board(new Dim(5, 5)), 3);
+        portfolio.setRepresentation(Engine.Representation.ARRAY);
+        List<Board> tours = portfolio.solve(0, 0, 2).toList();
+        assertEquals(2, tours.size());
+        assertEquals(2, portfolio.solutions());
+        for (Board tour : tours) {
+            assertEquals(1, tour.getMoves()[0][0]);
+            assertEquals(25, tour.step);
+        }
+    }
+
+    @Test
+    void solveClosed() {
+        Portfolio portfolio = new Portfolio(new Board(new Dim(5, 5)), 3);
+        portfolio.setClosed(true);
+        assertEquals(0, portfolio.solve(0, 0, 2).count());
+        assertEquals(Engine.Status.COMPLETE, portfolio.status());
+    }
+
+    @Test
+    void solveRestarts() {
+        Portfolio portfolio = new Portfolio(new Board(new Dim(6, 6), Blacks.BLACK_CORNER_GUARD), 1);
+        portfolio.setStrategies(Portfolio.Strategy.RESTARTS);
+        assertEquals(1, portfolio.solve(2, 2, 1).count());
+        assertEquals(Portfolio.Strategy.RESTARTS, portfolio.winner());
+    }
+
+    @Test
+    void solveComplete() {
+        Portfolio portfolio = new Portfolio(new Board(new Dim(5, 5)), 2);
+        assertEquals(0, portfolio.solve(1, 0, 1).count());
+        assertNotNull(portfolio.winner());
+    }
+}
@@ -0,0 +1,58 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardsTest {
+
+    @Test
+    void mergeProcesses(@TempDir Path dir) throws IOException, InterruptedException {
+        int count = 3;
+        List<Process> processes = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path file = dir.resolve("shard" + i);
+            files.add(file);
+            processes.add(new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), Shards.class.getName(),
+                    "run", "5x5", "0", "0", Integer.toString(i), Integer.toString(count), file.toString())
+                    .inheritIO().start());
+        }
+        for (Process process : processes) {
+            assertEquals(0, process.waitFor());
+        }
+        assertEquals(new Shards.Totals(1735079, 304), Shards.merge(files));
+        assertThrows(IllegalStateException.class, () -> Shards.merge(files.subList(0, count - 1)));
+    }
+
+    @Test
+    void mergeDepthAndBlacks(@TempDir Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Path file = dir.resolve("shard" + i);
+            files.add(file);
+            Shards.main(new String[]{"run", "5x5", "0", "0", Integer.toString(i), "2", file.toString(), "depth=3",
+                    "blacks=4,4"});
+        }
+        assertTrue(Files.readAllLines(files.get(0)).get(0).contains("depth=3"));
+        Engine engine = new Engine(new Dim(5, 5), 2, new Dim(4, 4));
+        long solutions = engine.count(0, 0);
+        assertEquals(new Shards.Totals(engine.moves(), solutions), Shards.merge(files));
+        assertThrows(IllegalStateException.class, () -> Shards.merge(List.of(files.get(0), files.get(0))));
+        List<String> lines = Files.readAllLines(files.get(1), StandardCharsets.US_ASCII);
+        lines.set(lines.size() - 1, Checkpoint.ROOT + " 1 1");
+        Files.write(files.get(1), lines, StandardCharsets.US_ASCII);
+        assertThrows(IllegalStateException.class, () -> Shards.merge(files));
+    }
+}
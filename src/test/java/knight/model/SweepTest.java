@@ -0,0 +1,51 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SweepTest {
+
+    @Test
+    void sweep() {
+        Sweep sweep = new Sweep(new Board(new Dim(5, 5)), 2);
+        long[][] counts = sweep.run();
+        for (int x = 0; x < 5; x++) {
+            for (int y = 0; y < 5; y++) {
+                Engine engine = new Engine(new Dim(5, 5), 2);
+                engine.setRepresentation(Engine.Representation.TABLE);
+                engine.setPruning(true);
+                assertEquals(engine.count(x, y), counts[x][y], x + "," + y);
+            }
+        }
+        assertEquals(304, counts[4][4]);
+        assertEquals(64, counts[2][2]);
+        assertEquals(0, sweep.errors());
+    }
+
+    @Test
+    void sweepWithBlacks() {
+        Sweep sweep = new Sweep(new Board(new Dim(5, 5), new Dim(4, 4)), 2);
+        sweep.setPruning(true);
+        long[][] counts = sweep.run();
+        assertEquals(-1, counts[4][4]);
+        assertEquals(1252, counts[0][0]);
+    }
+
+    @Test
+    void sweepStopped() throws InterruptedException {
+        Sweep sweep = new Sweep(new Board(new Dim(6, 6)), 2);
+        CompletableFuture<long[][]> counts = CompletableFuture.supplyAsync(sweep::run);
+        Thread.sleep(200);
+        sweep.stop();
+        CompletionException e = assertThrows(CompletionException.class, counts::join);
+        assertInstanceOf(CancellationException.class, e.getCause());
+        assertThrows(IllegalArgumentException.class, () -> sweep.setRepresentation(Engine.Representation.ARRAY));
+    }
+}
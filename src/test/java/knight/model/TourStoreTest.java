@@ -0,0 +1,50 @@
+package knight.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TourStoreTest {
+
+    @Test
+    void storeAndOpen(@TempDir Path dir) throws IOException {
+        Board layout = new Board(new Dim(5, 5), new Dim(4, 4));
+        List<Board> boards = new Engine(layout, 2).solve(0, 0).toList();
+        Function<Board, Tour> encoder = Tour.encoder(layout);
+        Path file = dir.resolve("5x5.tours");
+        try (TourStore store = TourStore.create(file, layout)) {
+            boards.stream().map(encoder).forEach(store::add);
+            store.seal();
+            assertEquals(boards.size(), store.size());
+        }
+        try (TourStore store = TourStore.open(file)) {
+            assertEquals(new Dim(5, 5), store.getSize());
+            assertEquals(boards.size(), store.size());
+            for (int i = 0; i < boards.size(); i++) {
+                assertArrayEquals(boards.get(i).getMoves(), store.get(i).board().getMoves());
+            }
+        }
+    }
+
+    @Test
+    void storeLargeBoard() throws IOException {
+        Board layout = new Board(new Dim(200, 200));
+        Board tour = Construction.tour(layout.size, new Dim(199, 199));    // Startfeld über Short.MAX_VALUE
+        TourStore store = TourStore.temporary(layout);
+        try (store) {
+            store.add(Tour.encoder(layout).apply(tour));
+            store.seal();
+            assertArrayEquals(tour.getMoves(), store.get(0).board().getMoves());
+        }
+        assertFalse(Files.exists(store.getFile()));
+    }
+}